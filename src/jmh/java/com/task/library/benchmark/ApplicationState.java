@@ -0,0 +1,74 @@
+package com.task.library.benchmark;
+
+import com.task.library.LibraryApplication;
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import com.task.library.service.BookService;
+import com.task.library.service.BorrowingService;
+import com.task.library.service.PatronService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application on a random port once per fork against the in-memory H2 database
+ * and seeds one book and one patron for the service benchmarks. Each run journals into its
+ * own directory under target.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    ConfigurableApplicationContext context;
+
+    BookService bookService;
+
+    BorrowingService borrowingService;
+
+    CacheManager cacheManager;
+
+    Long bookId;
+
+    Long patronId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(LibraryApplication.class)
+                // Expected conflicts would otherwise be logged at ERROR by LoggingAspect on every rejected checkout
+                .properties("server.port=0", "logging.level.root=WARN", "logging.level.com.task.library.aspect=OFF",
+                        "library.journal.dir=target/benchmark-journal/${random.uuid}")
+                .properties(extraProperties())
+                .run();
+        bookService = context.getBean(BookService.class);
+        borrowingService = context.getBean(BorrowingService.class);
+        cacheManager = context.getBean(CacheManager.class);
+
+        Book book = new Book();
+        book.setTitle("Benchmark Book");
+        book.setAuthor("Benchmark Author");
+        book.setPublicationYear(2024);
+        book.setIsbn("9780000000002");
+        bookId = bookService.createBook(book).getId();
+
+        Patron patron = new Patron();
+        patron.setName("Benchmark Patron");
+        patron.setContactInformation("benchmark@example.com");
+        patronId = context.getBean(PatronService.class).createPatron(patron).getId();
+    }
+
+    /**
+     * Properties a subclass adds to the benchmark application, e.g. from its {@code @Param} fields.
+     */
+    protected String[] extraProperties() {
+        return new String[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
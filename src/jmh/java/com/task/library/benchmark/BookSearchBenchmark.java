@@ -0,0 +1,129 @@
+package com.task.library.benchmark;
+
+import com.task.library.dto.BookSearchHit;
+import com.task.library.dto.BookSummary;
+import com.task.library.dto.CursorPage;
+import com.task.library.repository.BookRepository;
+import com.task.library.service.BookSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookSearchIndex over a synthetic catalog of a million titles drawn from a skewed
+ * vocabulary, so common terms have long postings. Searches run against the index only;
+ * the repository is an in-memory stub that serves the catalog in pages for the rebuild.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookSearchBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ra", "ten", "dor", "vel", "an", "is", "gar", "eth", "on", "ul", "bri", "sa"};
+
+    @Param({"1000000"})
+    public int books;
+
+    private List<BookSummary> catalog;
+
+    private BookSearchIndex index;
+
+    private String rare;
+
+    private String common;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[20_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = SYLLABLES[i % SYLLABLES.length] + SYLLABLES[(i / SYLLABLES.length) % SYLLABLES.length]
+                    + SYLLABLES[(i / (SYLLABLES.length * SYLLABLES.length)) % SYLLABLES.length] + (i / 3375 == 0 ? "" : i / 3375);
+        }
+        catalog = new ArrayList<>(books);
+        for (long id = 1; id <= books; id++) {
+            StringBuilder title = new StringBuilder();
+            int words = 2 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                title.append(w == 0 ? "" : " ").append(vocabulary[skewed(random, vocabulary.length)]);
+            }
+            String author = vocabulary[random.nextInt(vocabulary.length)] + " " + vocabulary[random.nextInt(vocabulary.length)];
+            catalog.add(new BookSummary(id, title.toString(), author, 1900 + random.nextInt(125), null));
+        }
+        index = newIndex();
+        index.rebuild();
+
+        rare = vocabulary[vocabulary.length - 7];
+        common = vocabulary[0];
+    }
+
+    @Benchmark
+    public CursorPage<BookSearchHit> searchRareTerm() {
+        return index.search(rare, null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<BookSearchHit> searchCommonTerm() {
+        return index.search(common, null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<BookSearchHit> searchPrefix() {
+        return index.search(common.substring(0, 3), null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<BookSearchHit> searchTypo() {
+        return index.search("" + rare.charAt(1) + rare.charAt(0) + rare.substring(2), null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<BookSearchHit> searchCommonAndRareTerms() {
+        return index.search(common + " " + rare, null, 20);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public BookSearchIndex rebuild() {
+        BookSearchIndex rebuilt = newIndex();
+        rebuilt.rebuild();
+        return rebuilt;
+    }
+
+    private BookSearchIndex newIndex() {
+        BookRepository repository = (BookRepository) Proxy.newProxyInstance(
+                BookRepository.class.getClassLoader(),
+                new Class<?>[]{BookRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findSummariesAfter")) {
+                        int from = (int) Math.min((Long) args[0], catalog.size());
+                        return catalog.subList(from, Math.min(from + ((Limit) args[1]).max(), catalog.size()));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        BookSearchIndex searchIndex = new BookSearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "bookRepository", repository);
+        ReflectionTestUtils.setField(searchIndex, "rebuildPageSize", 5000);
+        return searchIndex;
+    }
+
+    /**
+     * Picks low vocabulary indexes far more often than high ones.
+     */
+    private static int skewed(Random random, int size) {
+        double u = random.nextDouble();
+        return (int) (size * u * u * u);
+    }
+}
@@ -0,0 +1,29 @@
+package com.task.library.benchmark;
+
+import com.task.library.dto.BookDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code BookService.getBookById} served from the "books" cache versus loaded from H2.
+ * The miss benchmark evicts the entry first, so it includes one cache eviction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Benchmark
+    public BookDto getBookByIdCacheHit(ApplicationState state) {
+        return state.bookService.getBookById(state.bookId);
+    }
+
+    @Benchmark
+    public BookDto getBookByIdCacheMiss(ApplicationState state) {
+        state.cacheManager.getCache("books").evict(state.bookId);
+        return state.bookService.getBookById(state.bookId);
+    }
+}
@@ -0,0 +1,94 @@
+package com.task.library.benchmark;
+
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import com.task.library.exception.ConflictException;
+import com.task.library.service.PatronService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hundreds of threads, each with its own patron, checking out and returning the same
+ * title. Throughput counts completed borrow+return cycles; rejected checkouts (no copy
+ * left, lock timeout or retries exhausted) are reported as a separate counter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class BorrowingContentionBenchmark {
+
+    private static final int COPIES = 16;
+
+    @State(Scope.Benchmark)
+    public static class HotTitle {
+
+        Long bookId;
+
+        @Setup(Level.Trial)
+        public void create(ApplicationState application) {
+            Book book = new Book();
+            book.setTitle("Hot Title");
+            book.setAuthor("Popular Author");
+            book.setPublicationYear(2024);
+            book.setIsbn("9780000000019");
+            book.setCopiesTotal(COPIES);
+            bookId = application.bookService.createBook(book).getId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Borrower {
+
+        Long patronId;
+
+        @Setup(Level.Trial)
+        public void create(ApplicationState application) {
+            Patron patron = new Patron();
+            patron.setName("Contention Patron " + Thread.currentThread().getName());
+            patron.setContactInformation("contention@example.com");
+            patronId = application.context.getBean(PatronService.class).createPatron(patron).getId();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+
+        public long completed;
+
+        public long rejected;
+
+        public long returnRetries;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            completed = 0;
+            rejected = 0;
+            returnRetries = 0;
+        }
+    }
+
+    @Benchmark
+    public void borrowAndReturnHotTitle(ApplicationState application, HotTitle title, Borrower borrower, Outcomes outcomes) {
+        try {
+            application.borrowingService.borrowBook(title.bookId, borrower.patronId);
+        } catch (ConflictException e) {
+            outcomes.rejected++;
+            return;
+        }
+        // The copy must come back even if the return queues past the lock timeout
+        while (true) {
+            try {
+                application.borrowingService.returnBook(title.bookId, borrower.patronId);
+                break;
+            } catch (ConflictException e) {
+                outcomes.returnRetries++;
+            }
+        }
+        outcomes.completed++;
+    }
+}
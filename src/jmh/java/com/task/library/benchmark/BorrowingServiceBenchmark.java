@@ -0,0 +1,24 @@
+package com.task.library.benchmark;
+
+import com.task.library.entity.BorrowingRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One checkout followed by its return against H2, so the loan table stays
+ * at a steady number of active loans across iterations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowingServiceBenchmark {
+
+    @Benchmark
+    public BorrowingRecord borrowAndReturn(ApplicationState state) {
+        state.borrowingService.borrowBook(state.bookId, state.patronId);
+        return state.borrowingService.returnBook(state.bookId, state.patronId);
+    }
+}
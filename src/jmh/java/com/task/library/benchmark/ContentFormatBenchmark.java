@@ -0,0 +1,102 @@
+package com.task.library.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.BorrowingRecordSummary;
+import com.task.library.entity.Book;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding of a catalog page and a page of loans in each negotiated
+ * format, with mappers built the way the message converters build theirs. The payload
+ * size of each body, plain and gzipped, is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<BookDto> books;
+
+    private List<BorrowingRecordSummary> loans;
+
+    private byte[] encodedBooks;
+
+    private byte[] encodedLoans;
+
+    @Setup
+    public void setUp() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        books = new ArrayList<>(size);
+        loans = new ArrayList<>(size);
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (long i = 1; i <= size; i++) {
+            Book book = new Book();
+            book.setId(i);
+            book.setTitle("Title " + i);
+            book.setAuthor("Author " + (i % 97));
+            book.setPublicationYear(1900 + (int) (i % 120));
+            book.setIsbn(String.format("978%010d", i));
+            book.setCopiesTotal(3);
+            book.setCopiesAvailable((int) (i % 4));
+            book.setVersion(i % 7);
+            books.add(BookDto.of(book));
+            loans.add(new BorrowingRecordSummary(i, i, i % 50, day.plusDays(i % 300), i % 3 == 0 ? null : day.plusDays(i % 300 + 10)));
+        }
+        encodedBooks = objectMapper.writeValueAsBytes(books);
+        encodedLoans = objectMapper.writeValueAsBytes(loans);
+        System.out.printf("%n%s, %d rows: books %d bytes (%d gzipped), loans %d bytes (%d gzipped)%n", format, size,
+                encodedBooks.length, gzippedSize(encodedBooks), encodedLoans.length, gzippedSize(encodedLoans));
+    }
+
+    @Benchmark
+    public byte[] encodeBooks() throws Exception {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] encodeLoans() throws Exception {
+        return objectMapper.writeValueAsBytes(loans);
+    }
+
+    @Benchmark
+    public Book[] decodeBooks() throws Exception {
+        return objectMapper.readValue(encodedBooks, Book[].class);
+    }
+
+    private static int gzippedSize(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.task.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.library.dto.LoanChange;
+import com.task.library.entity.BorrowingRecord;
+import com.task.library.service.Journal;
+import com.task.library.service.JournalRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What journaling adds to a checkout: the borrow-and-return cycle with the journal on and
+ * off, and appends from several threads at once. Appending without pause keeps the ring
+ * full, so {@code append} measures how fast the writer drains it rather than the cost of
+ * one append. The Journal bean is not advised by LoggingAspect, so the directly constructed
+ * journal makes the same call a request does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+
+    public static class JournalApplicationState extends ApplicationState {
+
+        @Param({"true", "false"})
+        public boolean journalEnabled;
+
+        @Override
+        protected String[] extraProperties() {
+            return new String[]{"library.journal.enabled=" + journalEnabled};
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class JournalState {
+
+        Journal journal;
+
+        final LoanChange change = new LoanChange(1L, 2L, 3L, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 15),
+                null, 4, 5L);
+
+        @Setup(Level.Trial)
+        public void open() throws IOException {
+            journal = new Journal(new ObjectMapper().findAndRegisterModules(), true,
+                    Files.createTempDirectory("journal-benchmark"), DataSize.ofMegabytes(64), 65536, Duration.ofSeconds(1));
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws InterruptedException {
+            journal.close();
+        }
+    }
+
+    @Benchmark
+    public BorrowingRecord borrowAndReturn(JournalApplicationState state) {
+        state.borrowingService.borrowBook(state.bookId, state.patronId);
+        return state.borrowingService.returnBook(state.bookId, state.patronId);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void append(JournalState state) {
+        state.journal.append(JournalRecord.Type.LOAN_BORROWED, () -> state.change);
+    }
+}
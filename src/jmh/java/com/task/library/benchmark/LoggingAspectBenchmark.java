@@ -0,0 +1,64 @@
+package com.task.library.benchmark;
+
+import com.task.library.aspect.LoggingAspect;
+import com.task.library.dto.BookDto;
+import com.task.library.repository.BookRepository;
+import com.task.library.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the LoggingAspect advice: the same {@code getBookById} call on a plain
+ * BookService and on one proxied with the aspect, both backed by an in-memory repository stub.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+    private BookService plain;
+
+    private BookService advised;
+
+    @Setup
+    public void setUp() {
+        BookDto book = new BookDto(1L, "Benchmark Book", "Benchmark Author", 2024, "9780000000002", 1, 1, 0L);
+
+        BookRepository repository = (BookRepository) Proxy.newProxyInstance(
+                BookRepository.class.getClassLoader(),
+                new Class<?>[]{BookRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findDtoById")) {
+                        return Optional.of(book);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        plain = new BookService();
+        ReflectionTestUtils.setField(plain, "bookRepository", repository);
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(plain);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new LoggingAspect(new SimpleMeterRegistry()));
+        advised = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public BookDto withoutAdvice() {
+        return plain.getBookById(1L);
+    }
+
+    @Benchmark
+    public BookDto withAdvice() {
+        return advised.getBookById(1L);
+    }
+}
@@ -0,0 +1,76 @@
+package com.task.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.PatronDto;
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encoding of book and patron list responses, using the same
+ * ObjectMapper defaults the web layer is built with. Responses are the read DTOs;
+ * request bodies are still decoded into the entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<BookDto> books;
+
+    private List<PatronDto> patrons;
+
+    private byte[] booksJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        books = new ArrayList<>(size);
+        patrons = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            Book book = new Book();
+            book.setId(i);
+            book.setTitle("Title " + i);
+            book.setAuthor("Author " + i);
+            book.setPublicationYear(1900 + (int) (i % 120));
+            book.setIsbn(String.format("978%010d", i));
+            books.add(BookDto.of(book));
+
+            Patron patron = new Patron();
+            patron.setId(i);
+            patron.setName("Patron " + i);
+            patron.setContactInformation("patron" + i + "@example.com");
+            patrons.add(PatronDto.of(patron));
+        }
+        booksJson = objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializeBooks() throws Exception {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializePatrons() throws Exception {
+        return objectMapper.writeValueAsBytes(patrons);
+    }
+
+    @Benchmark
+    public Book[] deserializeBooks() throws Exception {
+        return objectMapper.readValue(booksJson, Book[].class);
+    }
+}
@@ -0,0 +1,163 @@
+package com.task.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time from launching the packaged application to its first successful API response, and
+ * its resident set size at that moment, as a plain JVM start, with the AOT-generated
+ * context, and with the AOT context plus the CDS archive. Each iteration is a fresh process
+ * started from the extracted jar that mvn -P startup -DskipTests package leaves in
+ * target/startup (another directory can be passed with -Dstartup.dir). The resident set
+ * size of every iteration, and its mean over the measurement iterations, is printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final String ARCHIVE = "library.jsa";
+
+    @Param({"jit", "aot", "aot-cds"})
+    public String mode;
+
+    private Path directory;
+
+    private Path jar;
+
+    private HttpClient client;
+
+    private int port;
+
+    private Process process;
+
+    private long rssKilobytes;
+
+    private final List<Long> measuredRssKilobytes = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void locateApplication() throws IOException {
+        directory = Path.of(System.getProperty("startup.dir", "target/startup")).toAbsolutePath();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                jar = files.filter(file -> file.getFileName().toString().endsWith(".jar")).findFirst().orElse(null);
+            }
+        }
+        if (jar == null) {
+            throw new IllegalStateException("No extracted application in " + directory + "; run mvn -P startup -DskipTests package first");
+        }
+        if (mode.endsWith("cds") && !Files.exists(directory.resolve(ARCHIVE))) {
+            throw new IllegalStateException("No CDS archive " + directory.resolve(ARCHIVE));
+        }
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void choosePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+    }
+
+    @Benchmark
+    public int firstRequest() throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (mode.endsWith("cds")) {
+            command.add("-XX:SharedArchiveFile=" + ARCHIVE);
+        }
+        if (mode.startsWith("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books"))
+                .header("Authorization", "Basic " + Base64.getEncoder().encodeToString("admin:123456".getBytes(StandardCharsets.UTF_8)))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with status " + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    rssKilobytes = residentSetKilobytes(process.pid());
+                    return response.statusCode();
+                }
+            } catch (IOException notListeningYet) {
+                // Tomcat binds the port only once the context has refreshed
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No response within " + STARTUP_TIMEOUT);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop(IterationParams iteration) throws InterruptedException {
+        System.out.printf("%n%s: resident set %d MB after the first response%n", mode, rssKilobytes / 1024);
+        if (iteration.getType() == IterationType.MEASUREMENT) {
+            measuredRssKilobytes.add(rssKilobytes);
+        }
+        rssKilobytes = 0;
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        measuredRssKilobytes.stream().mapToLong(Long::longValue).average().ifPresent(mean ->
+                System.out.printf("%n%s: mean resident set %.1f MB over %d measured starts%n", mode, mean / 1024, measuredRssKilobytes.size()));
+    }
+
+    /**
+     * VmRSS from /proc, or 0 where there is no /proc.
+     */
+    private static long residentSetKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+}
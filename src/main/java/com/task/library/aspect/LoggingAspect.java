@@ -1,79 +1,81 @@
 package com.task.library.aspect;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Aspect for logging execution of service methods and measuring performance metrics.
+ * Aspect for recording execution metrics of service methods.
+ * Every method of a {@code @Service} bean gets a nanosecond timer with a percentile
+ * histogram and an error counter tagged by exception type. Arguments and results are only logged at DEBUG.
+ * The advisors are built from the annotations at startup; the aspect instance and its
+ * meter registration wait for the first advised call.
  */
 @Aspect
 @Component
+@Lazy
 public class LoggingAspect {
 
+    public static final String TIMER_NAME = "library.service.method";
+    public static final String ERROR_COUNTER_NAME = "library.service.errors";
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    /**
-     * Pointcut that matches book addition and update methods in BookService.
-     */
-    @Pointcut("execution(* com.task.library.service.BookService.createBook(..)) || " +
-            "execution(* com.task.library.service.BookService.updateBook(..))")
-    public void bookModificationMethods() {}
+    private final MeterRegistry meterRegistry;
 
-    /**
-     * Pointcut that matches patron transaction methods in BorrowingService.
-     */
-    @Pointcut("execution(* com.task.library.service.BorrowingService.borrowBook(..)) || " +
-            "execution(* com.task.library.service.BorrowingService.returnBook(..))")
-    public void patronTransactionMethods() {}
+    private final ConcurrentMap<Method, Timer> successTimers = new ConcurrentHashMap<>();
 
-    /**
-     * Around advice that logs method execution time for book modifications.
-     */
-    @Around("bookModificationMethods()")
-    public Object logBookModification(ProceedingJoinPoint joinPoint) throws Throwable {
-        return logMethodExecutionTime(joinPoint);
+    public LoggingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
     }
 
     /**
-     * Around advice that logs method execution time for patron transactions.
+     * Pointcut that matches all methods in service classes. The in-memory components next to
+     * them, such as the indexes and the journal, are left unadvised.
      */
-    @Around("patronTransactionMethods()")
-    public Object logPatronTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
-        return logMethodExecutionTime(joinPoint);
-    }
+    @Pointcut("within(com.task.library.service..*) && @within(org.springframework.stereotype.Service)")
+    public void allServiceMethods() {}
 
     /**
-     * Utility method to log method execution time.
+     * Around advice that times every service method call.
      */
-    private Object logMethodExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        String methodName = joinPoint.getSignature().toShortString();
-        logger.info("Entering method: {} with arguments: {}", methodName, joinPoint.getArgs());
+    @Around("allServiceMethods()")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Entering method: {} with arguments: {}", joinPoint.getSignature().toShortString(), joinPoint.getArgs());
+        }
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         try {
             Object result = joinPoint.proceed();
 
-            long timeTaken = System.currentTimeMillis() - startTime;
-            logger.info("Exiting method: {} with result: {}. Time taken: {} ms", methodName, result, timeTaken);
+            long timeTaken = System.nanoTime() - startTime;
+            successTimer(joinPoint).record(timeTaken, TimeUnit.NANOSECONDS);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exiting method: {} with result: {}. Time taken: {} ns", joinPoint.getSignature().toShortString(), result, timeTaken);
+            }
 
             return result;
         } catch (Throwable throwable) {
-            long timeTaken = System.currentTimeMillis() - startTime;
-            logger.error("Exception in method: {} with message: {}. Time taken: {} ms", methodName, throwable.getMessage(), timeTaken);
+            long timeTaken = System.nanoTime() - startTime;
+            recordFailure(joinPoint, throwable, timeTaken);
             throw throwable;
         }
     }
 
-    /**
-     * Pointcut that matches all methods in service classes.
-     */
-    @Pointcut("within(com.task.library.service..*)")
-    public void allServiceMethods() {}
-
     /**
      * AfterThrowing advice to log exceptions in service methods.
      */
@@ -81,4 +83,35 @@ public class LoggingAspect {
     public void logExceptions(JoinPoint joinPoint, Throwable e) {
         logger.error("Exception in method: {} with cause: {}", joinPoint.getSignature().toShortString(), e.getCause() != null ? e.getCause() : "NULL");
     }
+
+    private Timer successTimer(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = successTimers.get(method);
+        if (timer == null) {
+            timer = successTimers.computeIfAbsent(method, key -> timer(joinPoint, "success"));
+        }
+        return timer;
+    }
+
+    // Failures are rare, so their meters are looked up through the registry instead of cached here
+    private void recordFailure(ProceedingJoinPoint joinPoint, Throwable throwable, long timeTaken) {
+        timer(joinPoint, "error").record(timeTaken, TimeUnit.NANOSECONDS);
+        Counter.builder(ERROR_COUNTER_NAME)
+                .description("Service method calls that ended with an exception")
+                .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("exception", throwable.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint, String outcome) {
+        return Timer.builder(TIMER_NAME)
+                .description("Service method execution time")
+                .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,41 @@
+package com.task.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+    public static final String BOOK_LIST = "bookList";
+    public static final String PATRONS = "patrons";
+    public static final String PATRON_LIST = "patronList";
+
+    // Bounded Caffeine regions; puts and evictions are deferred until the surrounding transaction commits
+    @Bean
+    public CacheManager cacheManager(@Value("${library.cache.entity-spec}") String entitySpec,
+                                     @Value("${library.cache.list-spec}") String listSpec,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        CaffeineCacheManager cacheManager = virtualThreads ? new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new StripedLoadingCache(super.adaptCaffeineCache(name, cache));
+            }
+        } : new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(BOOKS, Caffeine.from(entitySpec).build());
+        cacheManager.registerCustomCache(PATRONS, Caffeine.from(entitySpec).build());
+        cacheManager.registerCustomCache(BOOK_LIST, Caffeine.from(listSpec).build());
+        cacheManager.registerCustomCache(PATRON_LIST, Caffeine.from(listSpec).build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,77 @@
+package com.task.library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Remembers successful username/password verifications for a short time so that
+ * stateless HTTP Basic requests do not pay for a BCrypt hash on every call.
+ * Entries are keyed by a SHA-256 digest of the credentials, never the plain password;
+ * failed attempts are not cached and always reach the delegate.
+ * <p>
+ * Expiry is the only invalidation: a changed password or removed user is still accepted
+ * with the old credentials until their entry's time to live runs out.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final Cache<String, Authentication> verified;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Duration ttl, long maximumSize) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        String key = digest(authentication.getName(), password);
+
+        Authentication cached = verified.getIfPresent(key);
+        if (cached == null) {
+            cached = delegate.authenticate(authentication);
+            if (cached == null) {
+                return null;
+            }
+            verified.put(key, cached);
+        }
+
+        UsernamePasswordAuthenticationToken result =
+                UsernamePasswordAuthenticationToken.authenticated(cached.getPrincipal(), null, cached.getAuthorities());
+        result.setDetails(authentication.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    private static String digest(String username, String password) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(username.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0);
+            sha256.update(password.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
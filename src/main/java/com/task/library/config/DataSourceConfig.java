@@ -0,0 +1,39 @@
+package com.task.library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    // What Hikari uses when maximum-pool-size is not set; the bean only resolves it when the pool starts
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    // Caps concurrent connection holders at the pool size unless library.datasource.max-concurrency says otherwise
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                int maxConcurrency = environment.getProperty("library.datasource.max-concurrency", Integer.class, 0);
+                if (maxConcurrency <= 0 && dataSource instanceof HikariDataSource hikari) {
+                    maxConcurrency = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+                }
+                if (maxConcurrency <= 0) {
+                    return bean;
+                }
+                Duration timeout = environment.getProperty("library.datasource.acquire-timeout", Duration.class, Duration.ofSeconds(10));
+                return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, timeout);
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.task.library.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Gives Hibernate's JCache region factory a Caffeine cache manager of its own. The
+ * regions and their bounds come from application.conf, which Caffeine reads for any URI
+ * that is not a config file. Hibernate closes the manager when its session factory
+ * closes, so the provider's shared default manager would be closed under every other
+ * application context in the same JVM, as test contexts are.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer() {
+        return properties -> {
+            CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+            URI uri = URI.create("library-" + UUID.randomUUID());
+            properties.put(ConfigSettings.CACHE_MANAGER, provider.getCacheManager(uri, provider.getDefaultClassLoader()));
+        };
+    }
+}
@@ -1,7 +1,10 @@
 package com.task.library.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.User;
@@ -11,6 +14,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 @Configuration
 public class SecurityConfig {
 
@@ -20,6 +25,8 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authz -> authz
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").authenticated()
                         .requestMatchers("/api/**").authenticated()
                         .anyRequest().permitAll()
                 )
@@ -40,6 +47,20 @@ public class SecurityConfig {
         );
     }
 
+    // Define the AuthenticationProvider bean, optionally caching verified credentials
+    @Bean
+    public AuthenticationProvider authenticationProvider(
+            @Value("${library.security.credential-cache.enabled:true}") boolean cacheEnabled,
+            @Value("${library.security.credential-cache.ttl:5m}") Duration ttl,
+            @Value("${library.security.credential-cache.maximum-size:10000}") long maximumSize) {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(passwordEncoder());
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService());
+        if (!cacheEnabled) {
+            return daoAuthenticationProvider;
+        }
+        return new CachingAuthenticationProvider(daoAuthenticationProvider, ttl, maximumSize);
+    }
+
     // Define the PasswordEncoder bean
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -0,0 +1,107 @@
+package com.task.library.config;
+
+import com.task.library.service.StripedLocks;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache whose {@code @Cacheable(sync = true)} loads wait on a striped lock instead of
+ * inside the cache. Caffeine runs a load within a ConcurrentHashMap bin lock, a
+ * {@code synchronized} block, so a virtual thread querying the database there stays pinned
+ * to its carrier and may stall every other virtual thread while it waits for a connection.
+ * Concurrent misses on one key still load once: the others find the value on the second
+ * look.
+ */
+public class StripedLoadingCache implements Cache {
+
+    private static final int LOAD_STRIPES = 64;
+
+    private final Cache delegate;
+
+    private final StripedLocks loadLocks = new StripedLocks(LOAD_STRIPES);
+
+    public StripedLoadingCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        ReentrantLock lock = loadLocks.forKey(key.hashCode());
+        lock.lock();
+        try {
+            cached = delegate.get(key);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (value != null) {
+                delegate.put(key, value);
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,385 @@
+package com.task.library.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips responses that carry a strong ETag, which the connector's own compression always
+ * leaves alone: a gzipped body is a different representation and may not share the tag.
+ * For clients that accept gzip the tag gets a {@value #SUFFIX} suffix, as Apache httpd
+ * does, and the suffix is stripped from {@code If-None-Match} on the way in, so the
+ * controllers compare plain tags and a 304 carries the same tag as the 200 it confirms.
+ * As with the connector, bodies up to {@code server.compression.min-response-size} are
+ * sent uncompressed under their plain tag. Untagged responses are compressed by the
+ * connector as configured under {@code server.compression.*}.
+ */
+@Component
+public class StrongETagCompressionFilter extends OncePerRequestFilter {
+
+    static final String SUFFIX = "-gzip";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minResponseSize;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) || !acceptsGzip(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        GzipResponse gzipResponse = new GzipResponse(response, Math.toIntExact(minResponseSize.toBytes()),
+                ifNoneMatch != null && ifNoneMatch.contains(SUFFIX + "\""));
+        chain.doFilter(new PlainTagRequest(request), gzipResponse);
+        gzipResponse.finish();
+    }
+
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (values != null && values.hasMoreElements()) {
+            for (String coding : values.nextElement().split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean isStrong(String etag) {
+        return etag != null && etag.startsWith("\"");
+    }
+
+    private static final class PlainTagRequest extends HttpServletRequestWrapper {
+
+        PlainTagRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) && value != null ? stripSuffix(value) : value;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (!HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)) {
+                return super.getHeaders(name);
+            }
+            List<String> values = Collections.list(super.getHeaders(name));
+            return Collections.enumeration(values.stream().map(PlainTagRequest::stripSuffix).toList());
+        }
+
+        private static String stripSuffix(String value) {
+            return value.replace(SUFFIX + "\"", "\"");
+        }
+    }
+
+    /**
+     * Holds back a strongly tagged body until it outgrows the minimum size, then commits to
+     * gzip and the suffixed tag; a body that never does goes out as it is, under its plain
+     * tag. A response without a body, such as a 304, repeats the tag the way the client
+     * sent it back.
+     */
+    private static final class GzipResponse extends HttpServletResponseWrapper {
+
+        private final int minSize;
+
+        private final boolean gzipTagRequested;
+
+        // The strong tag set by the controller, held until the encoding is decided
+        private String plainTag;
+
+        private boolean decided;
+
+        private boolean compress;
+
+        private long contentLength = -1;
+
+        private DeferredOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        GzipResponse(HttpServletResponse response, int minSize, boolean gzipTagRequested) {
+            super(response);
+            this.minSize = minSize;
+            this.gzipTagRequested = gzipTagRequested;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name) && hold(value)) {
+                return;
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && plainTag != null) {
+                setContentLengthLong(Long.parseLong(value));
+                return;
+            }
+            super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name) && hold(value)) {
+                return;
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && plainTag != null) {
+                setContentLengthLong(Long.parseLong(value));
+                return;
+            }
+            super.addHeader(name, value);
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (plainTag == null) {
+                super.setContentLengthLong(length);
+            } else if (!decided) {
+                contentLength = length;
+            } else if (!compress) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (plainTag == null) {
+                return super.getOutputStream();
+            }
+            if (outputStream == null) {
+                outputStream = new DeferredOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (plainTag == null) {
+                return super.getWriter();
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream != null) {
+                outputStream.flush();
+            }
+            // Committing now would fix the headers before the encoding is decided
+            if (plainTag == null || decided) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (outputStream != null && !decided) {
+                outputStream.buffer.reset();
+            }
+            super.resetBuffer();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (plainTag == null) {
+                return;
+            }
+            if (outputStream == null) {
+                // No body: keep the form of the tag the client revalidated with
+                super.setHeader(HttpHeaders.ETAG, gzipTagRequested ? gzipTag(plainTag) : plainTag);
+                if (contentLength >= 0) {
+                    super.setContentLengthLong(contentLength);
+                }
+                return;
+            }
+            if (!decided) {
+                decide(false);
+            }
+            outputStream.finish();
+        }
+
+        private boolean hold(String etag) {
+            if (!isStrong(etag)) {
+                return false;
+            }
+            plainTag = etag;
+            super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            return true;
+        }
+
+        private void decide(boolean gzip) throws IOException {
+            decided = true;
+            compress = gzip;
+            if (gzip) {
+                super.setHeader(HttpHeaders.ETAG, gzipTag(plainTag));
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                super.setContentLengthLong(-1);
+                outputStream.target = new GzipOutputStream(super.getOutputStream());
+            } else {
+                super.setHeader(HttpHeaders.ETAG, plainTag);
+                super.setContentLengthLong(contentLength >= 0 ? contentLength : outputStream.buffer.size());
+                outputStream.target = super.getOutputStream();
+            }
+            outputStream.buffer.writeTo(outputStream.target);
+        }
+
+        private static String gzipTag(String etag) {
+            return etag.substring(0, etag.length() - 1) + SUFFIX + "\"";
+        }
+
+        /**
+         * Buffers up to the minimum size; the first write past it decides for gzip.
+         */
+        private final class DeferredOutputStream extends ServletOutputStream {
+
+            private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+            private OutputStream target;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (target == null && buffer.size() + len > minSize) {
+                    buffer.write(b, off, len);
+                    decide(true);
+                    return;
+                }
+                if (target == null) {
+                    buffer.write(b, off, len);
+                } else {
+                    target.write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+            }
+
+            void finish() throws IOException {
+                if (target == null) {
+                    decide(false);
+                }
+                if (target instanceof GzipOutputStream gzip) {
+                    gzip.finish();
+                } else {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                throw new UnsupportedOperationException("Strongly tagged responses are written synchronously");
+            }
+        }
+    }
+
+    private static final class GzipOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream target;
+
+        private final GZIPOutputStream gzip;
+
+        private boolean closed;
+
+        GzipOutputStream(ServletOutputStream target) throws IOException {
+            this.target = target;
+            this.gzip = new GZIPOutputStream(target, BUFFER_SIZE, true);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            gzip.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            gzip.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            gzip.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                gzip.close();
+            }
+        }
+
+        void finish() throws IOException {
+            if (!closed) {
+                gzip.finish();
+                target.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            target.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.task.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Watches for virtual threads that block while pinned to their carrier, e.g. on I/O
+ * inside a {@code synchronized} block in a driver or library. Pinned blocking holds one of
+ * the few carrier threads, so enough of it stalls every virtual thread. The JFR
+ * {@code jdk.VirtualThreadPinned} event is streamed in-process; each pin longer than the
+ * threshold is logged with the top of its stack and recorded in the
+ * {@value #TIMER_NAME} timer. On by default whenever virtual threads are.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    public static final String TIMER_NAME = "library.threads.pinned";
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final boolean enabled;
+
+    private final Duration threshold;
+
+    private final Timer pinned;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${library.threads.pinning-monitor.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+                                       @Value("${library.threads.pinning-monitor.threshold:20ms}") Duration threshold) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.pinned = Timer.builder(TIMER_NAME)
+                .description("Time virtual threads spent blocked while pinned to their carrier")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        logger.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    public long getPinnedCount() {
+        return pinned.count();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        logger.warn("Virtual thread {} was pinned for {} ms at {}",
+                event.getThread() == null ? "?" : event.getThread().getJavaThreadId(),
+                event.getDuration().toMillis(), topFrames(event.getStackTrace()));
+    }
+
+    private static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown location";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+}
@@ -1,14 +1,26 @@
 package com.task.library.controller;
 
+import com.task.library.dto.BookDto;
+import com.task.library.dto.BookSearchHit;
+import com.task.library.dto.BulkImportResult;
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.VersionedList;
 import com.task.library.entity.Book;
+import com.task.library.service.BookImportService;
 import com.task.library.service.BookService;
+import com.task.library.service.CatalogVersion;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -19,26 +31,81 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    // Loan expansions change without a catalog write, so only the plain lists are tagged
     @GetMapping
-    public List<Book> getAllBooks() {
-        return bookService.getAllBooks();
+    public List<BookDto> getAllBooks(@RequestParam(required = false) String include, WebRequest request) {
+        boolean loans = Includes.loans(include);
+        // Tagged with the version the cached list was read at, never a counter read apart from it
+        VersionedList<BookDto> books = bookService.getAllBooks();
+        if (!loans && ETags.notModified(request, catalogVersion.getEpoch(), books.getVersion())) {
+            return null;
+        }
+        return loans ? bookService.withLoans(books.getItems()) : books.getItems();
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-        Book book = bookService.getBookById(id);
+    @GetMapping(params = "limit")
+    public CursorPage<BookDto> getBooksPage(@RequestParam(required = false) String after, @RequestParam Integer limit,
+                                            @RequestParam(required = false) String include, WebRequest request) {
+        boolean loans = Includes.loans(include);
+        // The page is queried after the version is read, so its rows are never older than its tag
+        if (!loans && ETags.notModified(request, catalogVersion.getEpoch(), catalogVersion.books())) {
+            return null;
+        }
+        CursorPage<BookDto> page = bookService.getBooksPage(after, limit);
+        return loans ? new CursorPage<>(bookService.withLoans(page.getItems()), page.getNextCursor()) : page;
+    }
+
+    @GetMapping("/search")
+    public CursorPage<BookSearchHit> searchBooks(@RequestParam String q, @RequestParam(required = false) String after,
+                                                 @RequestParam(required = false) Integer limit) {
+        return bookService.searchBooks(q, after, limit);
+    }
+
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<BookDto> getBookByIsbn(@PathVariable String isbn) {
+        BookDto book = bookService.getBookById(bookService.findBookIdByIsbn(isbn));
         return ResponseEntity.ok(book);
     }
 
+    @GetMapping("/{id}")
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, @RequestParam(required = false) String include,
+                                               WebRequest request) {
+        if (Includes.loans(include)) {
+            return ResponseEntity.ok(bookService.withLoans(List.of(bookService.getBookById(id))).get(0));
+        }
+        // A cached book answers a matching If-None-Match before it is even fetched
+        Long version = bookService.findCachedVersion(id);
+        BookDto book = null;
+        if (version == null) {
+            book = bookService.getBookById(id);
+            version = book.getVersion();
+        }
+        if (version != null && ETags.notModified(request, catalogVersion.getEpoch(), version)) {
+            return null;
+        }
+        return ResponseEntity.ok(book != null ? book : bookService.getBookById(id));
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Book createBook(@Valid @RequestBody Book book) {
+    public BookDto createBook(@Valid @RequestBody Book book) {
         return bookService.createBook(book);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public BulkImportResult importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return bookImportService.importBooks(body, contentType);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book bookDetails) {
-        Book updatedBook = bookService.updateBook(id, bookDetails);
+    public ResponseEntity<BookDto> updateBook(@PathVariable Long id, @Valid @RequestBody Book bookDetails) {
+        BookDto updatedBook = bookService.updateBook(id, bookDetails);
         return ResponseEntity.ok(updatedBook);
     }
 
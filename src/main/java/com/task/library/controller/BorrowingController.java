@@ -1,7 +1,12 @@
 package com.task.library.controller;
 
+import com.task.library.dto.BatchCirculationRequest;
+import com.task.library.dto.BatchCirculationResult;
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.DueLoan;
 import com.task.library.entity.BorrowingRecord;
 import com.task.library.service.BorrowingService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,12 +26,32 @@ public class BorrowingController {
         return ResponseEntity.ok(borrowingService.getBorrows());
     }
 
+    @GetMapping(value = "/borrow", params = "limit")
+    public ResponseEntity<CursorPage<BorrowingRecord>> getBorrowsPage(@RequestParam(required = false) String after, @RequestParam Integer limit) {
+        return ResponseEntity.ok(borrowingService.getBorrowsPage(after, limit));
+    }
+
+    @GetMapping("/loans/overdue")
+    public List<DueLoan> getOverdueLoans() {
+        return borrowingService.getOverdueLoans();
+    }
+
     @PostMapping("/borrow/{bookId}/patron/{patronId}")
     @ResponseStatus(HttpStatus.CREATED)
     public BorrowingRecord borrowBook(@PathVariable Long bookId, @PathVariable Long patronId) {
         return borrowingService.borrowBook(bookId, patronId);
     }
 
+    @PostMapping("/borrow/batch")
+    public BatchCirculationResult borrowBooks(@Valid @RequestBody BatchCirculationRequest request) {
+        return borrowingService.borrowBooks(request.getPatronId(), request.getBookIds());
+    }
+
+    @PutMapping("/return/batch")
+    public BatchCirculationResult returnBooks(@Valid @RequestBody BatchCirculationRequest request) {
+        return borrowingService.returnBooks(request.getPatronId(), request.getBookIds());
+    }
+
     @PutMapping("/return/{bookId}/patron/{patronId}")
     public ResponseEntity<BorrowingRecord> returnBook(@PathVariable Long bookId, @PathVariable Long patronId) {
         BorrowingRecord record = borrowingService.returnBook(bookId, patronId);
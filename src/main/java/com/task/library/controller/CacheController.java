@@ -0,0 +1,29 @@
+package com.task.library.controller;
+
+import com.task.library.dto.CacheStatistics;
+import com.task.library.dto.RegionStatistics;
+import com.task.library.service.CacheStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @GetMapping("/stats")
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        return cacheStatsService.getCacheStatistics();
+    }
+
+    @GetMapping("/regions")
+    public Map<String, RegionStatistics> getRegionStatistics() {
+        return cacheStatsService.getRegionStatistics();
+    }
+}
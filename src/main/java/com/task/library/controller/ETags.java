@@ -0,0 +1,71 @@
+package com.task.library.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+/**
+ * Strong ETags for read endpoints. An entity's tag is its {@code @Version} qualified by
+ * the process epoch, since an in-memory database hands out the same ids and versions
+ * again after a restart; a full list's tag is the catalog version its cached copy was
+ * read at, and a page's the catalog version read before its query. Both are known before
+ * the response body is built, so a matching {@code If-None-Match} is answered with 304
+ * without querying or serializing anything. CBOR and Smile bodies are different
+ * bytes than the JSON one, so their tags carry the format too.
+ */
+final class ETags {
+
+    static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private ETags() {
+    }
+
+    static String of(long epoch, long version, String format) {
+        return "\"" + Long.toString(epoch, 36) + "-" + version + format + "\"";
+    }
+
+    /**
+     * Sets the ETag on the response and tells whether the client already has this version.
+     */
+    static boolean notModified(WebRequest request, long epoch, long version) {
+        return request.checkNotModified(of(epoch, version, format(request.getHeader(HttpHeaders.ACCEPT))));
+    }
+
+    /**
+     * The tag suffix of the encoding the message converters pick for this Accept header:
+     * the most specific acceptable type wins, and anything JSON accepts gets JSON.
+     */
+    static String format(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+            if (mediaType.isCompatibleWith(CBOR)) {
+                return "-cbor";
+            }
+            if (mediaType.isCompatibleWith(SMILE)) {
+                return "-smile";
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,54 @@
+package com.task.library.controller;
+
+import com.task.library.config.StrongETagCompressionFilter;
+import com.task.library.service.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/books")
+    public void exportBooks(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (OutputStream out = openNdjson(request, response)) {
+            exportService.exportBooks(out);
+        }
+    }
+
+    @GetMapping("/patrons")
+    public void exportPatrons(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (OutputStream out = openNdjson(request, response)) {
+            exportService.exportPatrons(out);
+        }
+    }
+
+    @GetMapping("/borrowings")
+    public void exportBorrowingRecords(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (OutputStream out = openNdjson(request, response)) {
+            exportService.exportBorrowingRecords(out);
+        }
+    }
+
+    private OutputStream openNdjson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (StrongETagCompressionFilter.acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+        }
+        return response.getOutputStream();
+    }
+}
@@ -0,0 +1,29 @@
+package com.task.library.controller;
+
+import com.task.library.exception.BadRequestException;
+
+/**
+ * Parses the {@code include} query parameter that opts read endpoints into expansions.
+ * {@code loans} is the only expansion so far.
+ */
+final class Includes {
+
+    static final String LOANS = "loans";
+
+    private Includes() {
+    }
+
+    static boolean loans(String include) {
+        if (include == null || include.isBlank()) {
+            return false;
+        }
+        boolean loans = false;
+        for (String expansion : include.split(",")) {
+            if (!expansion.trim().equals(LOANS)) {
+                throw new BadRequestException("Unknown include " + expansion.trim());
+            }
+            loans = true;
+        }
+        return loans;
+    }
+}
@@ -0,0 +1,49 @@
+package com.task.library.controller;
+
+import com.task.library.dto.JobRequest;
+import com.task.library.dto.JobStatus;
+import com.task.library.service.JobService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    @Autowired
+    private JobService jobService;
+
+    @PostMapping
+    public ResponseEntity<JobStatus> submitJob(@Valid @RequestBody JobRequest request) {
+        JobStatus job = jobService.submit(request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public JobStatus getJob(@PathVariable String id) {
+        return jobService.getStatus(id);
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getJobResult(@PathVariable String id) {
+        FileSystemResource result = new FileSystemResource(jobService.getResult(id));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + id + ".ndjson\"")
+                .body(result);
+    }
+
+    @DeleteMapping("/{id}")
+    public JobStatus cancelJob(@PathVariable String id) {
+        return jobService.cancel(id);
+    }
+}
@@ -0,0 +1,22 @@
+package com.task.library.controller;
+
+import com.task.library.dto.JournalReplayResult;
+import com.task.library.service.JournalReplayService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/journal")
+public class JournalController {
+
+    @Autowired
+    private JournalReplayService journalReplayService;
+
+    @PostMapping("/replay")
+    public JournalReplayResult replay(@RequestParam(defaultValue = "1") long from) {
+        return journalReplayService.rebuildDatabase(from);
+    }
+}
@@ -1,14 +1,22 @@
 package com.task.library.controller;
 
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.PatronDto;
+import com.task.library.dto.PatronLoan;
+import com.task.library.dto.VersionedList;
 import com.task.library.entity.Patron;
+import com.task.library.service.CatalogVersion;
 import com.task.library.service.PatronService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -19,26 +27,68 @@ public class PatronController {
     @Autowired
     private PatronService patronService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    // As for books, responses expanded with loans carry no ETag
     @GetMapping
-    public List<Patron> getAllPatrons() {
-        return patronService.getAllPatrons();
+    public List<PatronDto> getAllPatrons(@RequestParam(required = false) String include, WebRequest request) {
+        boolean loans = Includes.loans(include);
+        VersionedList<PatronDto> patrons = patronService.getAllPatrons();
+        if (!loans && ETags.notModified(request, catalogVersion.getEpoch(), patrons.getVersion())) {
+            return null;
+        }
+        return loans ? patronService.withLoans(patrons.getItems()) : patrons.getItems();
+    }
+
+    @GetMapping(params = "limit")
+    public CursorPage<PatronDto> getPatronsPage(@RequestParam(required = false) String after, @RequestParam Integer limit,
+                                                @RequestParam(required = false) String include, WebRequest request) {
+        boolean loans = Includes.loans(include);
+        if (!loans && ETags.notModified(request, catalogVersion.getEpoch(), catalogVersion.patrons())) {
+            return null;
+        }
+        CursorPage<PatronDto> page = patronService.getPatronsPage(after, limit);
+        return loans ? new CursorPage<>(patronService.withLoans(page.getItems()), page.getNextCursor()) : page;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Patron> getPatronById(@PathVariable Long id) {
-        Patron patron = patronService.getPatronById(id);
-        return ResponseEntity.ok(patron);
+    public ResponseEntity<PatronDto> getPatronById(@PathVariable Long id, @RequestParam(required = false) String include,
+                                                   WebRequest request) {
+        if (Includes.loans(include)) {
+            return ResponseEntity.ok(patronService.withLoans(List.of(patronService.getPatronById(id))).get(0));
+        }
+        Long version = patronService.findCachedVersion(id);
+        PatronDto patron = null;
+        if (version == null) {
+            patron = patronService.getPatronById(id);
+            version = patron.getVersion();
+        }
+        if (version != null && ETags.notModified(request, catalogVersion.getEpoch(), version)) {
+            return null;
+        }
+        return ResponseEntity.ok(patron != null ? patron : patronService.getPatronById(id));
+    }
+
+    @GetMapping("/{id}/loans")
+    public CursorPage<PatronLoan> getPatronLoans(@PathVariable Long id,
+                                                 @RequestParam(required = false) String status,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(required = false) String after,
+                                                 @RequestParam(required = false) Integer limit) {
+        return patronService.getLoans(id, status, from, to, after, limit);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Patron createPatron(@Valid @RequestBody Patron patron) {
+    public PatronDto createPatron(@Valid @RequestBody Patron patron) {
         return patronService.createPatron(patron);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Patron> updatePatron(@PathVariable Long id, @Valid @RequestBody Patron patronDetails) {
-        Patron updatedPatron = patronService.updatePatron(id, patronDetails);
+    public ResponseEntity<PatronDto> updatePatron(@PathVariable Long id, @Valid @RequestBody Patron patronDetails) {
+        PatronDto updatedPatron = patronService.updatePatron(id, patronDetails);
         return ResponseEntity.ok(updatedPatron);
     }
 
@@ -0,0 +1,37 @@
+package com.task.library.controller;
+
+import com.task.library.dto.DailyVolume;
+import com.task.library.dto.RankedCount;
+import com.task.library.service.CirculationStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    @Autowired
+    private CirculationStatsService circulationStatsService;
+
+    @GetMapping("/daily")
+    public List<DailyVolume> getDailyVolume(@RequestParam(defaultValue = "30") int days) {
+        return circulationStatsService.getDailyVolume(days);
+    }
+
+    @GetMapping("/top-books")
+    public List<RankedCount> getTopBooks(@RequestParam(defaultValue = "30") int days,
+                                         @RequestParam(required = false) Integer limit) {
+        return circulationStatsService.getTopBooks(days, limit);
+    }
+
+    @GetMapping("/top-patrons")
+    public List<RankedCount> getTopPatrons(@RequestParam(defaultValue = "30") int days,
+                                           @RequestParam(required = false) Integer limit) {
+        return circulationStatsService.getTopPatrons(days, limit);
+    }
+}
@@ -0,0 +1,24 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A book whose stored available copies do not match its total copies less its open loans.
+ */
+@Getter
+@AllArgsConstructor
+public class AuditFinding {
+
+    private final Long bookId;
+
+    private final String title;
+
+    private final int copiesTotal;
+
+    private final int copiesAvailable;
+
+    private final long activeLoans;
+
+    private final int expectedAvailable;
+}
@@ -0,0 +1,28 @@
+package com.task.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A circulation-desk basket: one patron and the books being checked out or returned.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCirculationRequest {
+
+    @NotNull
+    private Long patronId;
+
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotNull Long> bookIds;
+}
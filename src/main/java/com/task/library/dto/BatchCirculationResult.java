@@ -0,0 +1,38 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Per-book outcome of a batch checkout or return, in the order the books were requested.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchCirculationResult {
+
+    private final Long patronId;
+
+    private final List<Item> items;
+
+    public enum Status {
+        BORROWED,
+        RETURNED,
+        NOT_FOUND,
+        UNAVAILABLE,
+        ALREADY_BORROWED,
+        NOT_ON_LOAN
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Item {
+
+        private final Long bookId;
+
+        private final Status status;
+
+        private final Long recordId;
+    }
+}
@@ -0,0 +1,54 @@
+package com.task.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.task.library.entity.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Read model of a book, built from a column-only query so serializing it never touches
+ * the loan history. Loans are only present when a client asks for them with
+ * {@code ?include=loans}.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookDto {
+
+    private final Long id;
+
+    private final String title;
+
+    private final String author;
+
+    private final Integer publicationYear;
+
+    private final String isbn;
+
+    private final Integer copiesTotal;
+
+    private final Integer copiesAvailable;
+
+    private final Long version;
+
+    private final List<BorrowingRecordSummary> loans;
+
+    public BookDto(Long id, String title, String author, Integer publicationYear, String isbn,
+                   Integer copiesTotal, Integer copiesAvailable, Long version) {
+        this(id, title, author, publicationYear, isbn, copiesTotal, copiesAvailable, version, null);
+    }
+
+    public static BookDto of(Book book) {
+        return new BookDto(book.getId(), book.getTitle(), book.getAuthor(), book.getPublicationYear(), book.getIsbn(),
+                book.getCopiesTotal(), book.getCopiesAvailable(), book.getVersion());
+    }
+
+    /**
+     * Returns a copy carrying the given loans; cached instances are shared and never changed.
+     */
+    public BookDto withLoans(List<BorrowingRecordSummary> loans) {
+        return new BookDto(id, title, author, publicationYear, isbn, copiesTotal, copiesAvailable, version, loans);
+    }
+}
@@ -0,0 +1,22 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One ranked search result; higher scores are better matches.
+ */
+@Getter
+@AllArgsConstructor
+public class BookSearchHit {
+
+    private final Long id;
+
+    private final String title;
+
+    private final String author;
+
+    private final Integer publicationYear;
+
+    private final float score;
+}
@@ -0,0 +1,28 @@
+package com.task.library.dto;
+
+import com.task.library.entity.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The searchable, display-only columns of a book, loaded without the entity
+ * or its borrowing records.
+ */
+@Getter
+@AllArgsConstructor
+public class BookSummary {
+
+    private final Long id;
+
+    private final String title;
+
+    private final String author;
+
+    private final Integer publicationYear;
+
+    private final String isbn;
+
+    public static BookSummary of(Book book) {
+        return new BookSummary(book.getId(), book.getTitle(), book.getAuthor(), book.getPublicationYear(), book.getIsbn());
+    }
+}
@@ -0,0 +1,25 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Column-only view of a borrowing record that carries the book and patron ids
+ * without loading either entity.
+ */
+@Getter
+@AllArgsConstructor
+public class BorrowingRecordSummary {
+
+    private final Long id;
+
+    private final Long bookId;
+
+    private final Long patronId;
+
+    private final LocalDate borrowDate;
+
+    private final LocalDate returnDate;
+}
@@ -0,0 +1,55 @@
+package com.task.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: row counts plus the first rejected rows with the reason
+ * each one was skipped. Line numbers are 1-based positions in the uploaded body.
+ */
+@Getter
+public class BulkImportResult {
+
+    private long received;
+
+    private long imported;
+
+    private long failed;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    @JsonIgnore
+    private final int maxReportedErrors;
+
+    public BulkImportResult(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public void recordReceived() {
+        received++;
+    }
+
+    public void recordImported(int count) {
+        imported += count;
+    }
+
+    public void recordFailure(long line, String error) {
+        failed++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(line, error));
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+
+        private final long line;
+
+        private final String error;
+    }
+}
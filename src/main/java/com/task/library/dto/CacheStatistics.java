@@ -0,0 +1,23 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CacheStatistics {
+
+    private final long size;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final double hitRate;
+
+    private final long evictionCount;
+
+    private final long loadCount;
+
+    private final double averageLoadMillis;
+}
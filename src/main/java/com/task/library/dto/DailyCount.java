@@ -0,0 +1,28 @@
+package com.task.library.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Number of loans on one day, optionally for one book or patron id.
+ */
+@Getter
+public class DailyCount {
+
+    private final LocalDate day;
+
+    private final Long id;
+
+    private final long count;
+
+    public DailyCount(LocalDate day, Long id, Long count) {
+        this.day = day;
+        this.id = id;
+        this.count = count;
+    }
+
+    public DailyCount(LocalDate day, Long count) {
+        this(day, null, count);
+    }
+}
@@ -0,0 +1,17 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class DailyVolume {
+
+    private final LocalDate date;
+
+    private final long checkouts;
+
+    private final long returns;
+}
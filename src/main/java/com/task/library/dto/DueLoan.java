@@ -0,0 +1,30 @@
+package com.task.library.dto;
+
+import com.task.library.entity.BorrowingRecord;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Column-only view of an active loan and the day it is due back.
+ */
+@Getter
+@AllArgsConstructor
+public class DueLoan {
+
+    private final Long id;
+
+    private final Long bookId;
+
+    private final Long patronId;
+
+    private final LocalDate borrowDate;
+
+    private final LocalDate dueDate;
+
+    public static DueLoan of(BorrowingRecord record) {
+        return new DueLoan(record.getId(), record.getBook().getId(), record.getPatron().getId(),
+                record.getBorrowDate(), record.getDueDate());
+    }
+}
@@ -0,0 +1,16 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The stored version of a book or patron row, read without the rest of the row.
+ */
+@Getter
+@AllArgsConstructor
+public class EntityVersion {
+
+    private final Long id;
+
+    private final Long version;
+}
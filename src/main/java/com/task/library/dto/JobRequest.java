@@ -0,0 +1,40 @@
+package com.task.library.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A report to run in the background. Only {@link Type#PATRON_STATEMENT} takes a patron.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRequest {
+
+    @NotNull
+    private Type type;
+
+    private Priority priority;
+
+    private Long patronId;
+
+    public enum Type {
+        // Every loan ever recorded, oldest first
+        LOAN_HISTORY,
+        // One patron followed by all of their loans, newest first
+        PATRON_STATEMENT,
+        // Books whose available copies disagree with their open loans
+        CATALOG_AUDIT
+    }
+
+    // Declared from most to least urgent; queued jobs run in this order, then first come first served
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+}
@@ -0,0 +1,49 @@
+package com.task.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of a background report job. {@code total} is the number of rows the job
+ * expects to write, or -1 until it has counted them.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobStatus {
+
+    private final String id;
+
+    private final JobRequest.Type type;
+
+    private final JobRequest.Priority priority;
+
+    private final State state;
+
+    private final long processed;
+
+    private final long total;
+
+    private final Instant createdAt;
+
+    private final Instant startedAt;
+
+    private final Instant finishedAt;
+
+    private final String error;
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+
+    public boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED || state == State.CANCELLED;
+    }
+}
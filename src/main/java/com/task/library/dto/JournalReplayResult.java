@@ -0,0 +1,16 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class JournalReplayResult {
+
+    private final long fromSequence;
+
+    private final long records;
+
+    // Sequence of the last record applied, or 0 if there was none
+    private final long lastSequence;
+}
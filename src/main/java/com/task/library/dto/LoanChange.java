@@ -0,0 +1,39 @@
+package com.task.library.dto;
+
+import com.task.library.entity.Book;
+import com.task.library.entity.BorrowingRecord;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Journal payload of a checkout or return: the loan as committed and the copies and
+ * version its book was left with, so a replay sets both without recounting.
+ */
+@Getter
+@AllArgsConstructor
+public class LoanChange {
+
+    private final Long id;
+
+    private final Long bookId;
+
+    private final Long patronId;
+
+    private final LocalDate borrowDate;
+
+    private final LocalDate dueDate;
+
+    private final LocalDate returnDate;
+
+    private final Integer copiesAvailable;
+
+    private final Long bookVersion;
+
+    public static LoanChange of(BorrowingRecord record) {
+        Book book = record.getBook();
+        return new LoanChange(record.getId(), book.getId(), record.getPatron().getId(), record.getBorrowDate(),
+                record.getDueDate(), record.getReturnDate(), book.getCopiesAvailable(), book.getVersion());
+    }
+}
@@ -0,0 +1,43 @@
+package com.task.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.task.library.entity.Patron;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Read model of a patron, built from a column-only query. Loans are only present when
+ * a client asks for them with {@code ?include=loans}.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PatronDto {
+
+    private final Long id;
+
+    private final String name;
+
+    private final String contactInformation;
+
+    private final Long version;
+
+    private final List<BorrowingRecordSummary> loans;
+
+    public PatronDto(Long id, String name, String contactInformation, Long version) {
+        this(id, name, contactInformation, version, null);
+    }
+
+    public static PatronDto of(Patron patron) {
+        return new PatronDto(patron.getId(), patron.getName(), patron.getContactInformation(), patron.getVersion());
+    }
+
+    /**
+     * Returns a copy carrying the given loans; cached instances are shared and never changed.
+     */
+    public PatronDto withLoans(List<BorrowingRecordSummary> loans) {
+        return new PatronDto(id, name, contactInformation, version, loans);
+    }
+}
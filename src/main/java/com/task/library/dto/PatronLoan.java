@@ -0,0 +1,29 @@
+package com.task.library.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * One loan in a patron's history together with a summary of the borrowed book,
+ * read in the same query as the loan.
+ */
+@Getter
+public class PatronLoan {
+
+    private final Long id;
+
+    private final LocalDate borrowDate;
+
+    private final LocalDate returnDate;
+
+    private final BookSummary book;
+
+    public PatronLoan(Long id, LocalDate borrowDate, LocalDate returnDate,
+                      Long bookId, String title, String author, Integer publicationYear, String isbn) {
+        this.id = id;
+        this.borrowDate = borrowDate;
+        this.returnDate = returnDate;
+        this.book = new BookSummary(bookId, title, author, publicationYear, isbn);
+    }
+}
@@ -0,0 +1,16 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A book or patron id with its number of checkouts in a statistics window.
+ */
+@Getter
+@AllArgsConstructor
+public class RankedCount {
+
+    private final Long id;
+
+    private final long count;
+}
@@ -0,0 +1,19 @@
+package com.task.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A full listing together with the catalog version it was read at, as kept in the list
+ * caches. The version is read before the rows, so the rows are never older than it.
+ */
+@Getter
+@AllArgsConstructor
+public class VersionedList<T> {
+
+    private final long version;
+
+    private final List<T> items;
+}
@@ -2,25 +2,29 @@ package com.task.library.entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 import java.util.Set;
 
+// Copies change on every checkout, so concurrent readers must never see a stale count
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 @Setter
 @Getter
-@AllArgsConstructor
 @NoArgsConstructor
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -32,11 +36,43 @@ public class Book {
     @NotNull
     private Integer publicationYear;
 
+    // Stored as the 13 digits of the ISBN-13; BookService normalizes ISBN-10 input
     @NotBlank
+    @Column(unique = true)
     private String isbn;
 
+    // Number of copies the library owns; defaults to one when not given
+    @Min(1)
+    private Integer copiesTotal;
+
+    // Copies currently on the shelf, maintained by BorrowingService
+    private Integer copiesAvailable;
+
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "book")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "bookBorrowingRecords")
     private Set<BorrowingRecord> borrowingRecords;
 
+    public Book(Long id, String title, String author, Integer publicationYear, String isbn, Set<BorrowingRecord> borrowingRecords) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.publicationYear = publicationYear;
+        this.isbn = isbn;
+        this.borrowingRecords = borrowingRecords;
+    }
+
+    @PrePersist
+    void initialiseCopies() {
+        if (copiesTotal == null) {
+            copiesTotal = 1;
+        }
+        if (copiesAvailable == null) {
+            copiesAvailable = copiesTotal;
+        }
+    }
+
     // Getters and Setters
 }
@@ -5,16 +5,21 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
+// Inserted on checkout and updated once on return
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "borrowingRecord")
 @Setter
 @Getter
 public class BorrowingRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_record_seq")
+    @SequenceGenerator(name = "borrowing_record_seq", sequenceName = "borrowing_record_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -29,6 +34,8 @@ public class BorrowingRecord {
 
     private LocalDate borrowDate;
 
+    private LocalDate dueDate;
+
     private LocalDate returnDate;
 
     // Getters and Setters
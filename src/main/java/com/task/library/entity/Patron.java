@@ -3,18 +3,20 @@ package com.task.library.entity;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 
 
+// Read on every checkout but rarely edited; an edit only invalidates the entry after commit
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "patron")
 @Setter
 @Getter
-@AllArgsConstructor
 @NoArgsConstructor
 public class Patron {
 
@@ -28,8 +30,19 @@ public class Patron {
     @NotBlank
     private String contactInformation;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "patron")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patronBorrowingRecords")
     private Set<BorrowingRecord> borrowingRecords;
 
+    public Patron(Long id, String name, String contactInformation, Set<BorrowingRecord> borrowingRecords) {
+        this.id = id;
+        this.name = name;
+        this.contactInformation = contactInformation;
+        this.borrowingRecords = borrowingRecords;
+    }
+
     // Getters and Setters
 }
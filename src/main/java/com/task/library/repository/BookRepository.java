@@ -1,7 +1,46 @@
 package com.task.library.repository;
 
+import com.task.library.dto.BookDto;
+import com.task.library.dto.BookSummary;
+import com.task.library.dto.EntityVersion;
 import com.task.library.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
+    String BOOK_DTO = "select new com.task.library.dto.BookDto(b.id, b.title, b.author, b.publicationYear, b.isbn, " +
+            "b.copiesTotal, b.copiesAvailable, b.version) from Book b ";
+
+    @Query(BOOK_DTO + "order by b.id")
+    List<BookDto> findAllDtos();
+
+    @Query(BOOK_DTO + "where b.id > :after order by b.id")
+    List<BookDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    @Query(BOOK_DTO + "where b.id = :id")
+    Optional<BookDto> findDtoById(@Param("id") Long id);
+
+    @Query("select b from Book b order by b.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Book> streamAll();
+
+    @Query("select new com.task.library.dto.BookSummary(b.id, b.title, b.author, b.publicationYear, b.isbn) " +
+            "from Book b where b.id > :after order by b.id")
+    List<BookSummary> findSummariesAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select new com.task.library.dto.EntityVersion(b.id, b.version) from Book b where b.id in :ids")
+    List<EntityVersion> findVersionsByIds(@Param("ids") Collection<Long> ids);
 }
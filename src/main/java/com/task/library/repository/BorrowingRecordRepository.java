@@ -1,8 +1,85 @@
 package com.task.library.repository;
 
+import com.task.library.dto.BorrowingRecordSummary;
+import com.task.library.dto.DailyCount;
+import com.task.library.dto.DueLoan;
+import com.task.library.dto.PatronLoan;
+import com.task.library.dto.RankedCount;
 import com.task.library.entity.BorrowingRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord, Long> {
     BorrowingRecord findByBookIdAndPatronIdAndReturnDateIsNull(Long bookId, Long patronId);
+
+    @Query("select r.book.id from BorrowingRecord r " +
+            "where r.patron.id = :patronId and r.book.id in :bookIds and r.returnDate is null")
+    List<Long> findActiveBookIds(@Param("patronId") Long patronId, @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select r from BorrowingRecord r join fetch r.book " +
+            "where r.patron.id = :patronId and r.book.id in :bookIds and r.returnDate is null")
+    List<BorrowingRecord> findActiveRecords(@Param("patronId") Long patronId, @Param("bookIds") Collection<Long> bookIds);
+
+    List<BorrowingRecord> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("select new com.task.library.dto.DueLoan(r.id, r.book.id, r.patron.id, r.borrowDate, r.dueDate) " +
+            "from BorrowingRecord r where r.returnDate is null and r.id > :after order by r.id")
+    List<DueLoan> findDueLoansAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select new com.task.library.dto.DailyCount(r.borrowDate, r.book.id, count(r)) from BorrowingRecord r " +
+            "where r.borrowDate between :from and :to group by r.borrowDate, r.book.id")
+    List<DailyCount> countCheckoutsByDayAndBook(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.task.library.dto.DailyCount(r.borrowDate, r.patron.id, count(r)) from BorrowingRecord r " +
+            "where r.borrowDate between :from and :to group by r.borrowDate, r.patron.id")
+    List<DailyCount> countCheckoutsByDayAndPatron(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.task.library.dto.DailyCount(r.returnDate, count(r)) from BorrowingRecord r " +
+            "where r.returnDate between :from and :to group by r.returnDate")
+    List<DailyCount> countReturnsByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.task.library.dto.RankedCount(r.book.id, count(r)) from BorrowingRecord r " +
+            "where r.book.id in :bookIds and r.returnDate is null group by r.book.id")
+    List<RankedCount> countActiveLoansByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    long countByPatronId(Long patronId);
+
+    String RECORD_SUMMARY = "select new com.task.library.dto.BorrowingRecordSummary(r.id, r.book.id, r.patron.id, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r ";
+
+    @Query(RECORD_SUMMARY + "where r.book.id in :bookIds order by r.id")
+    List<BorrowingRecordSummary> findSummariesByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query(RECORD_SUMMARY + "where r.patron.id in :patronIds order by r.id")
+    List<BorrowingRecordSummary> findSummariesByPatronIds(@Param("patronIds") Collection<Long> patronIds);
+
+    @Query(RECORD_SUMMARY + "order by r.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BorrowingRecordSummary> streamAllSummaries();
+
+    String PATRON_LOAN = "select new com.task.library.dto.PatronLoan(r.id, r.borrowDate, r.returnDate, " +
+            "b.id, b.title, b.author, b.publicationYear, b.isbn) from BorrowingRecord r join r.book b " +
+            "where r.patron.id = :patronId and r.id < :before and r.borrowDate between :from and :to ";
+
+    @Query(PATRON_LOAN + "order by r.id desc")
+    List<PatronLoan> findPatronLoans(@Param("patronId") Long patronId, @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to, @Param("before") Long before, Limit limit);
+
+    @Query(PATRON_LOAN + "and r.returnDate is null order by r.id desc")
+    List<PatronLoan> findActivePatronLoans(@Param("patronId") Long patronId, @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to, @Param("before") Long before, Limit limit);
+
+    @Query(PATRON_LOAN + "and r.returnDate is not null order by r.id desc")
+    List<PatronLoan> findReturnedPatronLoans(@Param("patronId") Long patronId, @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to, @Param("before") Long before, Limit limit);
 }
@@ -1,7 +1,43 @@
 package com.task.library.repository;
 
+import com.task.library.dto.EntityVersion;
+import com.task.library.dto.PatronDto;
 import com.task.library.entity.Patron;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PatronRepository extends JpaRepository<Patron, Long> {
+    String PATRON_DTO = "select new com.task.library.dto.PatronDto(p.id, p.name, p.contactInformation, p.version) from Patron p ";
+
+    @Query(PATRON_DTO + "order by p.id")
+    List<PatronDto> findAllDtos();
+
+    // The patron table changes rarely, so single patrons and pages are served from the query cache
+    @Query(PATRON_DTO + "where p.id > :after order by p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<PatronDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    @Query(PATRON_DTO + "where p.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<PatronDto> findDtoById(@Param("id") Long id);
+
+    @Query("select p from Patron p order by p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Patron> streamAll();
+
+    @Query("select new com.task.library.dto.EntityVersion(p.id, p.version) from Patron p where p.id in :ids")
+    List<EntityVersion> findVersionsByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,260 @@
+package com.task.library.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.BookSummary;
+import com.task.library.dto.BulkImportResult;
+import com.task.library.entity.Book;
+import com.task.library.exception.BadRequestException;
+import com.task.library.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads books from an NDJSON or CSV upload. The body is parsed line by line, every row is
+ * validated against the entity constraints, and valid rows are committed in chunks of
+ * batched inserts. A failing chunk is replayed row by row so one bad row only rejects itself.
+ */
+@Service
+public class BookImportService {
+
+    public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    private static final List<String> CSV_COLUMNS = List.of("title", "author", "publicationYear", "isbn");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private ListCacheUpdater listCacheUpdater;
+
+    @Autowired
+    private Journal journal;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${library.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Autowired
+    public BookImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkImportResult importBooks(InputStream body, MediaType format) throws IOException {
+        boolean csv = TEXT_CSV.includes(format);
+        BulkImportResult result = new BulkImportResult(maxReportedErrors);
+        List<Book> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            int[] columnIndexes = csv ? readCsvHeader(reader.readLine()) : null;
+            long lineNumber = csv ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                result.recordReceived();
+
+                Book book;
+                try {
+                    book = csv ? parseCsvRow(line, columnIndexes) : parseJsonRow(line);
+                } catch (JsonProcessingException e) {
+                    result.recordFailure(lineNumber, "Unparseable row: " + e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    result.recordFailure(lineNumber, "Unparseable row: " + e.getMessage());
+                    continue;
+                }
+
+                Set<ConstraintViolation<Book>> violations = validator.validate(book);
+                if (!violations.isEmpty()) {
+                    result.recordFailure(lineNumber, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+                try {
+                    book.setIsbn(Isbn.normalize(book.getIsbn()));
+                } catch (BadRequestException e) {
+                    result.recordFailure(lineNumber, e.getMessage());
+                    continue;
+                }
+
+                chunk.add(book);
+                chunkLines.add(lineNumber);
+                if (chunk.size() == chunkSize) {
+                    insertChunk(chunk, chunkLines, result);
+                    chunk.clear();
+                    chunkLines.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, chunkLines, result);
+        }
+        return result;
+    }
+
+    private void insertChunk(List<Book> books, List<Long> lines, BulkImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.saveAll(books);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            result.recordImported(books.size());
+            List<BookSummary> imported = books.stream().map(BookSummary::of).toList();
+            bookSearchIndex.indexAll(imported);
+            isbnIndex.putAll(imported);
+            listCacheUpdater.upsertAll("bookList", books.stream().map(BookDto::of).toList(), BookDto::getId);
+            books.forEach(book -> journal.append(JournalRecord.Type.BOOK_SAVED, () -> BookDto.of(book)));
+        } catch (RuntimeException chunkFailure) {
+            for (int i = 0; i < books.size(); i++) {
+                Book book = books.get(i);
+                // Undo what the rolled-back chunk assigned, so the row is persisted as new
+                book.setId(null);
+                book.setVersion(null);
+                Book saved;
+                try {
+                    saved = transactionTemplate.execute(status -> bookRepository.save(book));
+                } catch (RuntimeException rowFailure) {
+                    result.recordFailure(lines.get(i), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                    continue;
+                }
+                result.recordImported(1);
+                bookSearchIndex.index(BookSummary.of(saved));
+                isbnIndex.put(saved.getIsbn(), saved.getId());
+                listCacheUpdater.upsert("bookList", BookDto.of(saved), BookDto::getId);
+                journal.append(JournalRecord.Type.BOOK_SAVED, () -> BookDto.of(saved));
+            }
+        }
+    }
+
+    private Book parseJsonRow(String line) throws JsonProcessingException {
+        Book book = objectMapper.readValue(line, Book.class);
+        book.setId(null);
+        book.setVersion(null);
+        book.setCopiesAvailable(book.getCopiesTotal());
+        book.setBorrowingRecords(null);
+        return book;
+    }
+
+    private int[] readCsvHeader(String header) {
+        if (header == null) {
+            throw new BadRequestException("CSV upload is missing its header row");
+        }
+        List<String> names = parseCsvLine(header);
+        int[] indexes = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < CSV_COLUMNS.size(); i++) {
+            indexes[i] = indexOfIgnoreCase(names, CSV_COLUMNS.get(i));
+            if (indexes[i] < 0) {
+                throw new BadRequestException("CSV header is missing column " + CSV_COLUMNS.get(i));
+            }
+        }
+        return indexes;
+    }
+
+    private Book parseCsvRow(String line, int[] columnIndexes) {
+        List<String> fields = parseCsvLine(line);
+        String year = field(fields, columnIndexes[2]);
+
+        Book book = new Book();
+        book.setTitle(field(fields, columnIndexes[0]));
+        book.setAuthor(field(fields, columnIndexes[1]));
+        book.setPublicationYear(year == null || year.isBlank() ? null : Integer.valueOf(year.trim()));
+        book.setIsbn(field(fields, columnIndexes[3]));
+        return book;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static int indexOfIgnoreCase(List<String> names, String name) {
+        String wanted = name.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).trim().toLowerCase(Locale.ROOT).equals(wanted)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splits one RFC 4180 record. Quoted fields may contain commas and doubled quotes,
+     * but not line breaks.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
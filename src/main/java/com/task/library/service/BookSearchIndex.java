@@ -0,0 +1,622 @@
+package com.task.library.service;
+
+import com.task.library.dto.BookSearchHit;
+import com.task.library.dto.BookSummary;
+import com.task.library.dto.CursorPage;
+import com.task.library.exception.BadRequestException;
+import com.task.library.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over book titles and authors, answering searches without a
+ * database round trip. Text is lower-cased and accent-folded into terms; a query term
+ * matches a term exactly, as a prefix, or with one typo, and every query term has to
+ * match the title or the author. Hits are ranked by an idf-weighted score in which title
+ * matches count double and exact matches beat prefix and typo matches.
+ * <p>
+ * Book writes are applied after their transaction commits. The index is built from the
+ * repository before the application accepts requests, tokenizing pages in parallel while
+ * the next page loads; writes that land during a later rebuild are replayed onto the new
+ * index before it goes live.
+ */
+@Component
+public class BookSearchIndex implements SmartInitializingSingleton {
+
+    public static final int MAX_OFFSET = 10_000;
+
+    static final float TITLE_BOOST = 2.0f;
+    static final float AUTHOR_BOOST = 1.0f;
+    static final float EXACT_WEIGHT = 1.0f;
+    static final float PREFIX_WEIGHT = 0.6f;
+    static final float FUZZY_WEIGHT = 0.4f;
+
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MIN_FUZZY_LENGTH = 4;
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${library.search.rebuild-page-size:5000}")
+    private int rebuildPageSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // One rebuild at a time, without pinning a virtual thread to its carrier while pages load
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Both guarded by lock; pendingWrites is only non-null while a rebuild runs.
+    private Segment segment = new Segment();
+    private List<Consumer<Segment>> pendingWrites;
+
+    public void index(BookSummary book) {
+        AfterCommit.run(() -> write(current -> current.put(book)));
+    }
+
+    public void indexAll(Collection<BookSummary> books) {
+        AfterCommit.run(() -> write(current -> books.forEach(current::put)));
+    }
+
+    public void remove(Long id) {
+        AfterCommit.run(() -> write(current -> current.remove(id)));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of ranked hits. The cursor wraps the offset of the next page, and
+     * paging stops at {@link #MAX_OFFSET} so a query never ranks more than that many hits.
+     */
+    public CursorPage<BookSearchHit> search(String query, String after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        long offset = CursorPage.decodeCursor(after);
+        if (offset < 0 || offset > MAX_OFFSET) {
+            throw new BadRequestException("Search results are limited to the first " + MAX_OFFSET + " hits");
+        }
+        List<String> terms = tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            throw new BadRequestException("Search query must contain a letter or a digit");
+        }
+
+        lock.readLock().lock();
+        try {
+            // Most selective term first; later terms only score books still in the running.
+            List<List<Scored>> termLists = terms.stream()
+                    .map(term -> expand(segment, term))
+                    .sorted(Comparator.comparingLong(BookSearchIndex::totalSize))
+                    .toList();
+            Scored matches = Scored.unionAll(termLists.get(0));
+            for (int t = 1; t < termLists.size() && matches.size > 0; t++) {
+                Scored candidates = matches;
+                List<Scored> restricted = termLists.get(t).stream()
+                        .map(list -> Scored.restrict(list, candidates))
+                        .toList();
+                matches = Scored.intersect(matches, Scored.unionAll(restricted));
+            }
+
+            int end = (int) offset + pageSize;
+            int[] ranked = rank(matches, end + 1);
+            List<BookSearchHit> hits = new ArrayList<>(pageSize);
+            for (int i = (int) offset; i < Math.min(end, ranked.length); i++) {
+                BookSummary book = segment.books.get(matches.ids[ranked[i]]);
+                hits.add(new BookSearchHit(book.getId(), book.getTitle(), book.getAuthor(),
+                        book.getPublicationYear(), matches.score(ranked[i])));
+            }
+            return new CursorPage<>(hits, ranked.length > end ? CursorPage.encodeCursor(end) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildIndex();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildIndex() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment rebuilt;
+        try {
+            rebuilt = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingWrites.forEach(change -> change.accept(rebuilt));
+            pendingWrites = null;
+            segment = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index rebuilt with {} books in {} ms", rebuilt.books.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private Segment load() {
+        List<CompletableFuture<Segment>> parts = new ArrayList<>();
+        long after = 0L;
+        List<BookSummary> page;
+        do {
+            page = bookRepository.findSummariesAfter(after, Limit.of(rebuildPageSize));
+            if (!page.isEmpty()) {
+                List<BookSummary> books = page;
+                parts.add(CompletableFuture.supplyAsync(() -> {
+                    Segment part = new Segment();
+                    books.forEach(part::put);
+                    return part;
+                }));
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == rebuildPageSize);
+
+        // Pages are in id order, so merging them concatenates postings and keeps them sorted.
+        Segment merged = new Segment();
+        for (CompletableFuture<Segment> part : parts) {
+            merged.append(part.join());
+        }
+        return merged;
+    }
+
+    private void write(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(segment);
+            if (pendingWrites != null) {
+                pendingWrites.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Postings of every dictionary term the query term matches in either field, each
+     * carrying the score it contributes.
+     */
+    private static List<Scored> expand(Segment segment, String term) {
+        List<Scored> lists = new ArrayList<>();
+        collect(segment.titleTerms, term, TITLE_BOOST, segment.books.size(), lists);
+        collect(segment.authorTerms, term, AUTHOR_BOOST, segment.books.size(), lists);
+        return lists;
+    }
+
+    private static long totalSize(List<Scored> lists) {
+        long total = 0;
+        for (Scored list : lists) {
+            total += list.size;
+        }
+        return total;
+    }
+
+    private static void collect(NavigableMap<String, Postings> dictionary, String term, float boost,
+                                int documents, List<Scored> into) {
+        Map<String, Float> expansions = new HashMap<>();
+        if (dictionary.containsKey(term)) {
+            expansions.put(term, EXACT_WEIGHT);
+        }
+        if (term.length() >= MIN_PREFIX_LENGTH) {
+            dictionary.subMap(term, false, term + Character.MAX_VALUE, false).entrySet().stream()
+                    .sorted(Comparator.comparingInt(entry -> -entry.getValue().size))
+                    .limit(MAX_PREFIX_EXPANSIONS)
+                    .forEach(entry -> expansions.put(entry.getKey(), PREFIX_WEIGHT));
+        }
+        if (term.length() >= MIN_FUZZY_LENGTH) {
+            for (String variant : singleEdits(term)) {
+                if (dictionary.containsKey(variant)) {
+                    expansions.putIfAbsent(variant, FUZZY_WEIGHT);
+                }
+            }
+        }
+        expansions.forEach((expansion, weight) -> {
+            Postings postings = dictionary.get(expansion);
+            float idf = (float) Math.log(1.0 + (double) documents / postings.size);
+            into.add(new Scored(postings.ids, null, boost * weight * idf, postings.size));
+        });
+    }
+
+    /**
+     * Every string one deletion, transposition, substitution or insertion away from the term.
+     */
+    static Set<String> singleEdits(String term) {
+        Set<String> edits = new HashSet<>();
+        StringBuilder edit = new StringBuilder(term.length() + 1);
+        for (int i = 0; i < term.length(); i++) {
+            edits.add(edit.append(term, 0, i).append(term, i + 1, term.length()).toString());
+            edit.setLength(0);
+            if (i + 1 < term.length()) {
+                edits.add(edit.append(term, 0, i).append(term.charAt(i + 1)).append(term.charAt(i))
+                        .append(term, i + 2, term.length()).toString());
+                edit.setLength(0);
+            }
+        }
+        for (int i = 0; i <= term.length(); i++) {
+            for (char c : ALPHABET) {
+                edits.add(edit.append(term, 0, i).append(c).append(term, i, term.length()).toString());
+                edit.setLength(0);
+                if (i < term.length()) {
+                    edits.add(edit.append(term, 0, i).append(c).append(term, i + 1, term.length()).toString());
+                    edit.setLength(0);
+                }
+            }
+        }
+        edits.remove(term);
+        return edits;
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters and digits. Accents are folded away,
+     * but plain ASCII text, the common case, skips the Unicode normalization pass.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        if (!isAscii(text)) {
+            text = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        }
+        List<String> terms = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indexes into {@code matches} of the best {@code k} hits, best first, selected with a
+     * bounded heap whose root is the worst hit kept so far.
+     */
+    private static int[] rank(Scored matches, int k) {
+        int[] heap = new int[Math.min(k, matches.size)];
+        int size = 0;
+        for (int i = 0; i < matches.size; i++) {
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(matches, heap, size++);
+            } else if (heap.length > 0 && matches.better(i, heap[0])) {
+                heap[0] = i;
+                siftDown(matches, heap, size, 0);
+            }
+        }
+        int[] ranked = new int[size];
+        for (int r = size - 1; r >= 0; r--) {
+            ranked[r] = heap[0];
+            heap[0] = heap[r];
+            siftDown(matches, heap, r, 0);
+        }
+        return ranked;
+    }
+
+    private static void siftUp(Scored matches, int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!matches.better(heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(Scored matches, int[] heap, int size, int index) {
+        while (true) {
+            int worst = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (matches.better(heap[worst], heap[child])) {
+                    worst = child;
+                }
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, worst, index);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    /**
+     * Term dictionaries for both fields plus the stored books. Not thread-safe by itself.
+     */
+    private static final class Segment {
+
+        private final Map<Long, BookSummary> books = new HashMap<>();
+
+        private final NavigableMap<String, Postings> titleTerms = new TreeMap<>();
+
+        private final NavigableMap<String, Postings> authorTerms = new TreeMap<>();
+
+        void put(BookSummary book) {
+            remove(book.getId());
+            books.put(book.getId(), book);
+            addTerms(titleTerms, book.getTitle(), book.getId());
+            addTerms(authorTerms, book.getAuthor(), book.getId());
+        }
+
+        void remove(Long id) {
+            BookSummary previous = books.remove(id);
+            if (previous != null) {
+                removeTerms(titleTerms, previous.getTitle(), id);
+                removeTerms(authorTerms, previous.getAuthor(), id);
+            }
+        }
+
+        /**
+         * Appends a segment built from books with higher ids than any in this one.
+         */
+        void append(Segment later) {
+            books.putAll(later.books);
+            later.titleTerms.forEach((term, postings) -> titleTerms.computeIfAbsent(term, t -> new Postings()).append(postings));
+            later.authorTerms.forEach((term, postings) -> authorTerms.computeIfAbsent(term, t -> new Postings()).append(postings));
+        }
+
+        private static void addTerms(NavigableMap<String, Postings> dictionary, String text, long id) {
+            for (String term : tokenize(text)) {
+                dictionary.computeIfAbsent(term, t -> new Postings()).add(id);
+            }
+        }
+
+        private static void removeTerms(NavigableMap<String, Postings> dictionary, String text, long id) {
+            for (String term : tokenize(text)) {
+                Postings postings = dictionary.get(term);
+                if (postings != null && postings.remove(id)) {
+                    dictionary.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorted, duplicate-free book ids containing one term.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[2];
+
+        private int size;
+
+        void add(long id) {
+            if (size > 0 && id <= ids[size - 1]) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                ensureCapacity(size + 1);
+                int insertAt = -at - 1;
+                System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+                ids[insertAt] = id;
+                size++;
+                return;
+            }
+            ensureCapacity(size + 1);
+            ids[size++] = id;
+        }
+
+        void append(Postings later) {
+            ensureCapacity(size + later.size);
+            System.arraycopy(later.ids, 0, ids, size, later.size);
+            size += later.size;
+        }
+
+        /**
+         * @return true if the postings are now empty
+         */
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+            return size == 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(capacity, ids.length * 2));
+            }
+        }
+    }
+
+    /**
+     * Book ids in ascending order with their scores; a null score array means every id
+     * scores {@code constant}.
+     */
+    private static final class Scored {
+
+        private final long[] ids;
+
+        private final float[] scores;
+
+        private final float constant;
+
+        private final int size;
+
+        Scored(long[] ids, float[] scores, float constant, int size) {
+            this.ids = ids;
+            this.scores = scores;
+            this.constant = constant;
+            this.size = size;
+        }
+
+        float score(int i) {
+            return scores == null ? constant : scores[i];
+        }
+
+        boolean better(int i, int j) {
+            float a = score(i);
+            float b = score(j);
+            return a != b ? a > b : ids[i] < ids[j];
+        }
+
+        /**
+         * Merges the lists pairwise, keeping the best score of an id matched by several terms.
+         */
+        static Scored unionAll(List<Scored> lists) {
+            if (lists.isEmpty()) {
+                return new Scored(new long[0], null, 0f, 0);
+            }
+            while (lists.size() > 1) {
+                List<Scored> merged = new ArrayList<>((lists.size() + 1) / 2);
+                for (int i = 0; i < lists.size(); i += 2) {
+                    merged.add(i + 1 < lists.size() ? union(lists.get(i), lists.get(i + 1)) : lists.get(i));
+                }
+                lists = merged;
+            }
+            return lists.get(0);
+        }
+
+        private static Scored union(Scored a, Scored b) {
+            long[] ids = new long[a.size + b.size];
+            float[] scores = new float[a.size + b.size];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.size && j < b.size) {
+                if (a.ids[i] < b.ids[j]) {
+                    ids[n] = a.ids[i];
+                    scores[n++] = a.score(i++);
+                } else if (a.ids[i] > b.ids[j]) {
+                    ids[n] = b.ids[j];
+                    scores[n++] = b.score(j++);
+                } else {
+                    ids[n] = a.ids[i];
+                    scores[n++] = Math.max(a.score(i++), b.score(j++));
+                }
+            }
+            for (; i < a.size; i++, n++) {
+                ids[n] = a.ids[i];
+                scores[n] = a.score(i);
+            }
+            for (; j < b.size; j++, n++) {
+                ids[n] = b.ids[j];
+                scores[n] = b.score(j);
+            }
+            return new Scored(ids, scores, 0f, n);
+        }
+
+        /**
+         * Keeps ids present in both lists, summing their scores.
+         */
+        static Scored intersect(Scored a, Scored b) {
+            return join(a, b, true);
+        }
+
+        /**
+         * Keeps the ids of {@code list} that are also in {@code candidates}, with their score in {@code list}.
+         */
+        static Scored restrict(Scored list, Scored candidates) {
+            return join(list, candidates, false);
+        }
+
+        /**
+         * When one list is much shorter its ids are binary-searched in the other instead
+         * of merging both.
+         */
+        private static Scored join(Scored a, Scored b, boolean sumScores) {
+            Scored small = a.size <= b.size ? a : b;
+            Scored large = small == a ? b : a;
+            long[] ids = new long[small.size];
+            float[] scores = new float[small.size];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            boolean gallop = (long) small.size * 16 < large.size;
+            while (i < small.size && j < large.size) {
+                if (gallop) {
+                    int at = Arrays.binarySearch(large.ids, j, large.size, small.ids[i]);
+                    if (at < 0) {
+                        i++;
+                        j = -at - 1;
+                        continue;
+                    }
+                    j = at;
+                } else if (small.ids[i] < large.ids[j]) {
+                    i++;
+                    continue;
+                } else if (small.ids[i] > large.ids[j]) {
+                    j++;
+                    continue;
+                }
+                float aScore = small == a ? small.score(i) : large.score(j);
+                float bScore = small == a ? large.score(j) : small.score(i);
+                ids[n] = small.ids[i];
+                scores[n++] = sumScores ? aScore + bScore : aScore;
+                i++;
+                j++;
+            }
+            return new Scored(ids, scores, 0f, n);
+        }
+    }
+}
@@ -1,16 +1,31 @@
 package com.task.library.service;
 
+import com.task.library.dto.BookDto;
+import com.task.library.dto.BookSearchHit;
+import com.task.library.dto.BookSummary;
+import com.task.library.dto.BorrowingRecordSummary;
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.VersionedList;
 import com.task.library.entity.Book;
+import com.task.library.exception.ConflictException;
 import com.task.library.exception.ResourceNotFoundException;
 import com.task.library.repository.BookRepository;
+import com.task.library.repository.BorrowingRecordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 @Service
 public class BookService {
@@ -18,40 +33,180 @@ public class BookService {
     @Autowired
     private BookRepository bookRepository;
 
-    @Cacheable("books")
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ListCacheUpdater listCacheUpdater;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private Journal journal;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public VersionedList<BookDto> getAllBooks() {
+        return listCacheUpdater.get("bookList", bookRepository::findAllDtos);
     }
 
-    @Cacheable(value = "books", key = "#id")
-    public Book getBookById(Long id) {
-        return bookRepository.findById(id)
+    public CursorPage<BookDto> getBooksPage(String after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<BookDto> rows = bookRepository.findDtosAfter(CursorPage.decodeCursor(after), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BookDto::getId);
+    }
+
+    /**
+     * Attaches each book's loan history with IN queries on the listed ids, one per
+     * {@link CursorPage#MAX_LIMIT} ids, so a page costs one more query.
+     */
+    public List<BookDto> withLoans(List<BookDto> books) {
+        if (books.isEmpty()) {
+            return books;
+        }
+        // Only the listed rows' loans, a page of ids per query
+        List<Long> ids = books.stream().map(BookDto::getId).toList();
+        List<BorrowingRecordSummary> loans = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CursorPage.MAX_LIMIT) {
+            loans.addAll(borrowingRecordRepository.findSummariesByBookIds(ids.subList(from, Math.min(ids.size(), from + CursorPage.MAX_LIMIT))));
+        }
+        Map<Long, List<BorrowingRecordSummary>> loansByBook = loans.stream()
+                .collect(Collectors.groupingBy(BorrowingRecordSummary::getBookId));
+        return books.stream()
+                .map(book -> book.withLoans(loansByBook.getOrDefault(book.getId(), List.of())))
+                .toList();
+    }
+
+    public CursorPage<BookSearchHit> searchBooks(String query, String after, Integer limit) {
+        return bookSearchIndex.search(query, after, limit);
+    }
+
+    /**
+     * Resolves an ISBN-10 or ISBN-13 to a book id from the in-memory ISBN index.
+     */
+    public long findBookIdByIsbn(String isbn) {
+        long bookId = isbnIndex.findBookId(Isbn.parse(isbn));
+        if (bookId == LongLongHashMap.NO_VALUE) {
+            throw new ResourceNotFoundException("Book not found with ISBN " + isbn);
+        }
+        return bookId;
+    }
+
+    /**
+     * @return the version of the cached copy of a book, or null when it is not cached
+     */
+    public Long findCachedVersion(Long id) {
+        Cache books = cacheManager.getCache("books");
+        BookDto book = books == null ? null : books.get(id, BookDto.class);
+        return book == null ? null : book.getVersion();
+    }
+
+    @Cacheable(value = "books", key = "#id", sync = true)
+    public BookDto getBookById(Long id) {
+        return bookRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id " + id));
     }
 
     @Transactional
-    @CacheEvict(value = "books", allEntries = true)
-    public Book createBook(Book book) {
-        return bookRepository.save(book);
+    @CachePut(value = "books", key = "#result.id")
+    public BookDto createBook(Book book) {
+        // A new book starts with every copy on the shelf, whatever the client sent
+        book.setId(null);
+        book.setVersion(null);
+        book.setCopiesAvailable(book.getCopiesTotal());
+        book.setIsbn(normalizeUniqueIsbn(book.getIsbn(), null));
+        Book savedBook = bookRepository.save(book);
+        isbnIndex.put(savedBook.getIsbn(), savedBook.getId());
+        BookDto savedDto = BookDto.of(savedBook);
+        listCacheUpdater.upsert("bookList", savedDto, BookDto::getId);
+        bookSearchIndex.index(BookSummary.of(savedBook));
+        journal.append(JournalRecord.Type.BOOK_SAVED, () -> BookDto.of(savedBook));
+        return savedDto;
     }
 
     @Transactional
-    @CacheEvict(value = "books", allEntries = true)
-    public Book updateBook(Long id, Book bookDetails) {
-        Book book = getBookById(id);
+    @CachePut(value = "books", key = "#id")
+    public BookDto updateBook(Long id, Book bookDetails) {
+        Book book = findBook(id);
+        String previousIsbn = book.getIsbn();
 
         book.setTitle(bookDetails.getTitle());
         book.setAuthor(bookDetails.getAuthor());
         book.setPublicationYear(bookDetails.getPublicationYear());
-        book.setIsbn(bookDetails.getIsbn());
+        book.setIsbn(normalizeUniqueIsbn(bookDetails.getIsbn(), id));
+        if (bookDetails.getCopiesTotal() != null) {
+            int onLoan = book.getCopiesTotal() - book.getCopiesAvailable();
+            if (bookDetails.getCopiesTotal() < onLoan) {
+                throw new ConflictException("Book " + id + " has " + onLoan + " copies on loan");
+            }
+            book.setCopiesTotal(bookDetails.getCopiesTotal());
+            book.setCopiesAvailable(bookDetails.getCopiesTotal() - onLoan);
+        }
 
-        return bookRepository.save(book);
+        // Flushed so the returned and cached copy carries the incremented version
+        Book savedBook = bookRepository.saveAndFlush(book);
+        if (!savedBook.getIsbn().equals(previousIsbn)) {
+            isbnIndex.remove(previousIsbn, id);
+            isbnIndex.put(savedBook.getIsbn(), id);
+        }
+        BookDto savedDto = BookDto.of(savedBook);
+        listCacheUpdater.upsert("bookList", savedDto, BookDto::getId);
+        bookSearchIndex.index(BookSummary.of(savedBook));
+        journal.append(JournalRecord.Type.BOOK_SAVED, () -> BookDto.of(savedBook));
+        return savedDto;
+    }
+
+    /**
+     * Refreshes the cached copy of a book changed outside this service, e.g. its
+     * available copies after a checkout, without evicting it. The book was read in a
+     * transaction that has already committed, so an update committed since may have cached
+     * a newer copy; only an older cached copy is replaced.
+     */
+    @SuppressWarnings("unchecked")
+    public BookDto refreshCachedBook(Book book) {
+        BookDto bookDto = BookDto.of(book);
+        Cache books = cacheManager.getCache("books");
+        if (books != null && books.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            ((ConcurrentMap<Object, Object>) caffeine.asMap()).computeIfPresent(book.getId(), (id, cached) ->
+                    ListCacheUpdater.isNewer(bookDto.getVersion(), ((BookDto) cached).getVersion()) ? bookDto : cached);
+        } else if (books != null) {
+            books.evict(book.getId());
+        }
+        listCacheUpdater.refresh("bookList", bookDto, BookDto::getId, BookDto::getVersion);
+        return bookDto;
     }
 
     @Transactional
-    @CacheEvict(value = "books", allEntries = true)
+    @CacheEvict(value = "books", key = "#id")
     public void deleteBook(Long id) {
-        Book book = getBookById(id);
+        Book book = findBook(id);
         bookRepository.delete(book);
+        listCacheUpdater.remove("bookList", id, BookDto::getId);
+        bookSearchIndex.remove(id);
+        isbnIndex.remove(book.getIsbn(), id);
+        journal.append(JournalRecord.Type.BOOK_DELETED, () -> id);
+    }
+
+    private Book findBook(Long id) {
+        return bookRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id " + id));
+    }
+
+    /**
+     * Returns the canonical ISBN-13, rejecting it if another book already has it. The
+     * unique index on the column still guards against two concurrent writers.
+     */
+    private String normalizeUniqueIsbn(String isbn, Long bookId) {
+        long isbn13 = Isbn.parse(isbn);
+        long existingId = isbnIndex.findBookId(isbn13);
+        if (existingId != LongLongHashMap.NO_VALUE && (bookId == null || existingId != bookId)) {
+            throw new ConflictException("Book " + existingId + " already has ISBN " + Isbn.format(isbn13));
+        }
+        return Isbn.format(isbn13);
     }
 }
@@ -1,19 +1,45 @@
 package com.task.library.service;
 
+import com.task.library.dto.BatchCirculationResult;
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.DueLoan;
+import com.task.library.dto.LoanChange;
 import com.task.library.entity.Book;
 import com.task.library.entity.BorrowingRecord;
 import com.task.library.entity.Patron;
+import com.task.library.exception.ConflictException;
 import com.task.library.exception.ResourceNotFoundException;
 import com.task.library.repository.BookRepository;
 import com.task.library.repository.BorrowingRecordRepository;
 import com.task.library.repository.PatronRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
+/**
+ * Checkouts and returns. Available copies are tracked on {@link Book} under optimistic
+ * locking; callers touching the same title are first serialized on an in-memory striped
+ * lock so a popular title queues in the JVM rather than in row locks, and a version
+ * conflict from another node is retried a bounded number of times.
+ */
 @Service
 public class BorrowingService {
 
@@ -26,35 +52,275 @@ public class BorrowingService {
     @Autowired
     private BorrowingRecordRepository borrowingRecordRepository;
 
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private OverdueTracker overdueTracker;
+
+    @Autowired
+    private CirculationStatsService circulationStatsService;
+
+    @Autowired
+    private Journal journal;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final StripedLocks bookLocks;
+
+    @Value("${library.borrowing.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${library.borrowing.lock-timeout:2s}")
+    private Duration lockTimeout;
+
+    @Value("${library.loans.period:14d}")
+    private Period loanPeriod;
+
+    @Autowired
+    public BorrowingService(PlatformTransactionManager transactionManager,
+                            @Value("${library.borrowing.lock-stripes:256}") int lockStripes) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookLocks = new StripedLocks(lockStripes);
+    }
+
     public List<BorrowingRecord> getBorrows(){
         return borrowingRecordRepository.findAll();
     }
 
-    @Transactional
+    public CursorPage<BorrowingRecord> getBorrowsPage(String after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<BorrowingRecord> rows = borrowingRecordRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decodeCursor(after), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BorrowingRecord::getId);
+    }
+
+    public List<DueLoan> getOverdueLoans() {
+        return overdueTracker.getOverdueLoans();
+    }
+
     public BorrowingRecord borrowBook(Long bookId, Long patronId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id " + bookId));
+        return withBookLock(bookId, () -> {
+            BorrowingRecord borrowingRecord = withRetry("Book id " + bookId, () -> transactionTemplate.execute(status -> {
+                Book book = bookRepository.findById(bookId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Book not found with id " + bookId));
 
-        Patron patron = patronRepository.findById(patronId)
-                .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id " + patronId));
+                Patron patron = patronRepository.findById(patronId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id " + patronId));
 
-        BorrowingRecord borrowingRecord = new BorrowingRecord();
-        borrowingRecord.setBook(book);
-        borrowingRecord.setPatron(patron);
-        borrowingRecord.setBorrowDate(LocalDate.now());
+                if (book.getCopiesAvailable() <= 0) {
+                    throw new ConflictException("No copies available for book id " + bookId);
+                }
+                if (borrowingRecordRepository.findByBookIdAndPatronIdAndReturnDateIsNull(bookId, patronId) != null) {
+                    throw new ConflictException("Patron id " + patronId + " already has book id " + bookId + " on loan");
+                }
+                book.setCopiesAvailable(book.getCopiesAvailable() - 1);
+                bookRepository.saveAndFlush(book);
 
-        return borrowingRecordRepository.save(borrowingRecord);
+                BorrowingRecord newRecord = newLoan(book, patron);
+                BorrowingRecord savedRecord = borrowingRecordRepository.save(newRecord);
+                overdueTracker.track(DueLoan.of(savedRecord));
+                circulationStatsService.recordCheckout(bookId, patronId, savedRecord.getBorrowDate());
+                journal.append(JournalRecord.Type.LOAN_BORROWED, () -> LoanChange.of(savedRecord));
+                return savedRecord;
+            }));
+            bookService.refreshCachedBook(borrowingRecord.getBook());
+            return borrowingRecord;
+        });
     }
 
-    @Transactional
     public BorrowingRecord returnBook(Long bookId, Long patronId) {
-        BorrowingRecord borrowingRecord = borrowingRecordRepository.findByBookIdAndPatronIdAndReturnDateIsNull(bookId, patronId);
+        return withBookLock(bookId, () -> {
+            BorrowingRecord borrowingRecord = withRetry("Book id " + bookId, () -> transactionTemplate.execute(status -> {
+                BorrowingRecord activeRecord = borrowingRecordRepository.findByBookIdAndPatronIdAndReturnDateIsNull(bookId, patronId);
+
+                if (activeRecord == null) {
+                    throw new ResourceNotFoundException("Borrowing record not found for book id " + bookId + " and patron id " + patronId);
+                }
+
+                Book book = activeRecord.getBook();
+                book.setCopiesAvailable(Math.min(book.getCopiesAvailable() + 1, book.getCopiesTotal()));
+                bookRepository.saveAndFlush(book);
 
-        if (borrowingRecord == null) {
-            throw new ResourceNotFoundException("Borrowing record not found for book id " + bookId + " and patron id " + patronId);
+                activeRecord.setReturnDate(LocalDate.now());
+                overdueTracker.untrack(activeRecord.getId());
+                circulationStatsService.recordReturn(activeRecord.getReturnDate());
+                journal.append(JournalRecord.Type.LOAN_RETURNED, () -> LoanChange.of(activeRecord));
+                return borrowingRecordRepository.save(activeRecord);
+            }));
+            bookService.refreshCachedBook(borrowingRecord.getBook());
+            return borrowingRecord;
+        });
+    }
+
+    /**
+     * Checks out a whole basket for one patron in a single transaction: one IN query for
+     * the books, one for the patron's active loans among them, and one batch of inserts.
+     * Books that cannot be lent are reported per item without failing the others.
+     */
+    public BatchCirculationResult borrowBooks(Long patronId, List<Long> bookIds) {
+        List<Long> distinctBookIds = bookIds.stream().distinct().toList();
+        return withBookLocks(distinctBookIds, () -> {
+            List<BorrowingRecord> newRecords = new ArrayList<>();
+            List<BatchCirculationResult.Item> items = withRetry("Books " + distinctBookIds, () -> transactionTemplate.execute(status -> {
+                newRecords.clear();
+                Patron patron = patronRepository.findById(patronId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id " + patronId));
+
+                Map<Long, Book> books = new HashMap<>();
+                bookRepository.findAllById(distinctBookIds).forEach(book -> books.put(book.getId(), book));
+                Set<Long> onLoan = new HashSet<>(borrowingRecordRepository.findActiveBookIds(patronId, distinctBookIds));
+
+                List<BorrowingRecord> itemRecords = new ArrayList<>();
+                List<BatchCirculationResult.Status> itemStatuses = new ArrayList<>();
+                for (Long bookId : bookIds) {
+                    Book book = books.get(bookId);
+                    BorrowingRecord newRecord = null;
+                    BatchCirculationResult.Status itemStatus;
+                    if (book == null) {
+                        itemStatus = BatchCirculationResult.Status.NOT_FOUND;
+                    } else if (!onLoan.add(bookId)) {
+                        itemStatus = BatchCirculationResult.Status.ALREADY_BORROWED;
+                    } else if (book.getCopiesAvailable() <= 0) {
+                        itemStatus = BatchCirculationResult.Status.UNAVAILABLE;
+                    } else {
+                        book.setCopiesAvailable(book.getCopiesAvailable() - 1);
+                        newRecord = newLoan(book, patron);
+                        newRecords.add(newRecord);
+                        itemStatus = BatchCirculationResult.Status.BORROWED;
+                    }
+                    itemRecords.add(newRecord);
+                    itemStatuses.add(itemStatus);
+                }
+
+                borrowingRecordRepository.saveAll(newRecords);
+                borrowingRecordRepository.flush();
+                newRecords.forEach(newRecord -> {
+                    overdueTracker.track(DueLoan.of(newRecord));
+                    circulationStatsService.recordCheckout(newRecord.getBook().getId(), patronId, newRecord.getBorrowDate());
+                    journal.append(JournalRecord.Type.LOAN_BORROWED, () -> LoanChange.of(newRecord));
+                });
+                return toItems(bookIds, itemStatuses, itemRecords);
+            }));
+            newRecords.forEach(newRecord -> bookService.refreshCachedBook(newRecord.getBook()));
+            return new BatchCirculationResult(patronId, items);
+        });
+    }
+
+    /**
+     * Returns a whole basket for one patron in a single transaction, loading all of the
+     * patron's matching active loans with one query.
+     */
+    public BatchCirculationResult returnBooks(Long patronId, List<Long> bookIds) {
+        List<Long> distinctBookIds = bookIds.stream().distinct().toList();
+        return withBookLocks(distinctBookIds, () -> {
+            List<BorrowingRecord> returnedRecords = new ArrayList<>();
+            List<BatchCirculationResult.Item> items = withRetry("Books " + distinctBookIds, () -> transactionTemplate.execute(status -> {
+                returnedRecords.clear();
+                Map<Long, BorrowingRecord> activeRecords = new HashMap<>();
+                borrowingRecordRepository.findActiveRecords(patronId, distinctBookIds)
+                        .forEach(activeRecord -> activeRecords.put(activeRecord.getBook().getId(), activeRecord));
+
+                List<BorrowingRecord> itemRecords = new ArrayList<>();
+                List<BatchCirculationResult.Status> itemStatuses = new ArrayList<>();
+                for (Long bookId : bookIds) {
+                    BorrowingRecord activeRecord = activeRecords.remove(bookId);
+                    if (activeRecord == null) {
+                        itemRecords.add(null);
+                        itemStatuses.add(BatchCirculationResult.Status.NOT_ON_LOAN);
+                        continue;
+                    }
+                    Book book = activeRecord.getBook();
+                    book.setCopiesAvailable(Math.min(book.getCopiesAvailable() + 1, book.getCopiesTotal()));
+                    activeRecord.setReturnDate(LocalDate.now());
+                    overdueTracker.untrack(activeRecord.getId());
+                    circulationStatsService.recordReturn(activeRecord.getReturnDate());
+                    journal.append(JournalRecord.Type.LOAN_RETURNED, () -> LoanChange.of(activeRecord));
+                    returnedRecords.add(activeRecord);
+                    itemRecords.add(activeRecord);
+                    itemStatuses.add(BatchCirculationResult.Status.RETURNED);
+                }
+
+                borrowingRecordRepository.flush();
+                return toItems(bookIds, itemStatuses, itemRecords);
+            }));
+            returnedRecords.forEach(returnedRecord -> bookService.refreshCachedBook(returnedRecord.getBook()));
+            return new BatchCirculationResult(patronId, items);
+        });
+    }
+
+    private BorrowingRecord newLoan(Book book, Patron patron) {
+        BorrowingRecord newRecord = new BorrowingRecord();
+        newRecord.setBook(book);
+        newRecord.setPatron(patron);
+        newRecord.setBorrowDate(LocalDate.now());
+        newRecord.setDueDate(newRecord.getBorrowDate().plus(loanPeriod));
+        return newRecord;
+    }
+
+    private static List<BatchCirculationResult.Item> toItems(List<Long> bookIds, List<BatchCirculationResult.Status> statuses,
+                                                            List<BorrowingRecord> records) {
+        List<BatchCirculationResult.Item> items = new ArrayList<>(bookIds.size());
+        for (int i = 0; i < bookIds.size(); i++) {
+            BorrowingRecord itemRecord = records.get(i);
+            items.add(new BatchCirculationResult.Item(bookIds.get(i), statuses.get(i), itemRecord == null ? null : itemRecord.getId()));
+        }
+        return items;
+    }
+
+    private <T> T withBookLocks(List<Long> bookIds, Supplier<T> action) {
+        List<ReentrantLock> locks = bookLocks.forKeys(bookIds);
+        List<ReentrantLock> held = new ArrayList<>(locks.size());
+        try {
+            for (ReentrantLock lock : locks) {
+                if (!lock.tryLock(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new ConflictException("Books " + bookIds + " are busy, please retry");
+                }
+                held.add(lock);
+            }
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for books " + bookIds);
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
         }
+    }
 
-        borrowingRecord.setReturnDate(LocalDate.now());
-        return borrowingRecordRepository.save(borrowingRecord);
+    private <T> T withBookLock(Long bookId, Supplier<T> action) {
+        ReentrantLock lock = bookLocks.forKey(bookId);
+        try {
+            if (!lock.tryLock(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ConflictException("Book id " + bookId + " is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for book id " + bookId);
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T withRetry(String subject, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ConflictException("Concurrent modification of " + subject.toLowerCase() + ", please retry");
+                }
+                try {
+                    // Randomised backoff so competing nodes do not retry in lockstep
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * attempt + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,201 @@
+package com.task.library.service;
+
+import com.task.library.config.CacheConfig;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.EntityVersion;
+import com.task.library.dto.PatronDto;
+import com.task.library.repository.BookRepository;
+import com.task.library.repository.PatronRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Saves the hottest entries of the {@code books} and {@code patrons} caches to a local
+ * file on shutdown and puts them back at startup, before the web server accepts
+ * requests, so a restarted node does not send its first minutes of reads to the
+ * database. The file is a flat binary list of rows. The database may have moved on while
+ * the node was down, so every entry is checked against its stored version with one
+ * id-and-version query per chunk and only current entries are loaded.
+ */
+@Component
+public class CacheSnapshot implements SmartInitializingSingleton {
+
+    private static final int MAGIC = 0x4c434853;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int VERIFY_CHUNK_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Value("${library.cache.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${library.cache.snapshot.file:data/cache-snapshot.bin}")
+    private Path file;
+
+    @Value("${library.cache.snapshot.max-entries:10000}")
+    private int maxEntries;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+        try {
+            load();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable cache snapshot {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not save cache snapshot {}", file, e);
+        }
+    }
+
+    /**
+     * Writes the hottest cached books and patrons, most recently used first.
+     */
+    public void save() throws IOException {
+        List<BookDto> books = hottest(CacheConfig.BOOKS, BookDto.class);
+        List<PatronDto> patrons = hottest(CacheConfig.PATRONS, PatronDto.class);
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path partial = Files.createTempFile(parent, file.getFileName().toString(), ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(books.size());
+            for (BookDto book : books) {
+                out.writeLong(book.getId());
+                out.writeUTF(book.getTitle());
+                out.writeUTF(book.getAuthor());
+                out.writeInt(book.getPublicationYear());
+                out.writeUTF(book.getIsbn());
+                out.writeInt(book.getCopiesTotal());
+                out.writeInt(book.getCopiesAvailable());
+                out.writeLong(book.getVersion());
+            }
+            out.writeInt(patrons.size());
+            for (PatronDto patron : patrons) {
+                out.writeLong(patron.getId());
+                out.writeUTF(patron.getName());
+                out.writeUTF(patron.getContactInformation());
+                out.writeLong(patron.getVersion());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Saved {} books and {} patrons to cache snapshot {}", books.size(), patrons.size(), file);
+    }
+
+    /**
+     * Puts the snapshot entries whose version still matches the database into the caches.
+     *
+     * @return the number of entries loaded
+     */
+    public int load() throws IOException {
+        List<BookDto> books = new ArrayList<>();
+        List<PatronDto> patrons = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a cache snapshot of this format");
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                books.add(new BookDto(in.readLong(), in.readUTF(), in.readUTF(), in.readInt(), in.readUTF(),
+                        in.readInt(), in.readInt(), in.readLong()));
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                patrons.add(new PatronDto(in.readLong(), in.readUTF(), in.readUTF(), in.readLong()));
+            }
+        }
+        int loadedBooks = putCurrent(CacheConfig.BOOKS, books, BookDto::getId, BookDto::getVersion, bookRepository::findVersionsByIds);
+        int loadedPatrons = putCurrent(CacheConfig.PATRONS, patrons, PatronDto::getId, PatronDto::getVersion, patronRepository::findVersionsByIds);
+        logger.info("Warmed caches from snapshot {}: {} of {} books and {} of {} patrons still current",
+                file, loadedBooks, books.size(), loadedPatrons, patrons.size());
+        return loadedBooks + loadedPatrons;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> hottest(String cacheName, Class<T> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return List.of();
+        }
+        Map<?, ?> entries = nativeCache.policy().eviction()
+                .<Map<?, ?>>map(eviction -> eviction.hottest(maxEntries))
+                .orElse(nativeCache.asMap());
+        return entries.values().stream()
+                .filter(type::isInstance)
+                .map(value -> (T) value)
+                .limit(maxEntries)
+                .toList();
+    }
+
+    // The coldest entries are put first, so the cache's own ordering starts out close to the saved one
+    private <T> int putCurrent(String cacheName, List<T> entries, Function<T, Long> idOf, ToLongFunction<T> versionOf,
+                               Function<Collection<Long>, List<EntityVersion>> storedVersions) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return 0;
+        }
+        int loaded = 0;
+        for (int to = entries.size(); to > 0; to -= VERIFY_CHUNK_SIZE) {
+            List<T> chunk = entries.subList(Math.max(0, to - VERIFY_CHUNK_SIZE), to);
+            Map<Long, Long> versions = storedVersions.apply(chunk.stream().map(idOf).toList()).stream()
+                    .collect(Collectors.toMap(EntityVersion::getId, EntityVersion::getVersion));
+            for (int i = chunk.size() - 1; i >= 0; i--) {
+                T entry = chunk.get(i);
+                Long stored = versions.get(idOf.apply(entry));
+                if (stored != null && stored == versionOf.applyAsLong(entry)) {
+                    // Nothing else writes the cache before startup completes; putIfAbsent would count as a miss and a load
+                    cache.put(idOf.apply(entry), entry);
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+}
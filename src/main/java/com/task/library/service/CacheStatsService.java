@@ -0,0 +1,69 @@
+package com.task.library.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.task.library.dto.CacheStatistics;
+import com.task.library.dto.RegionStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class CacheStatsService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        Map<String, CacheStatistics> statistics = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                CacheStats stats = caffeine.stats();
+                statistics.put(name, new CacheStatistics(
+                        caffeine.estimatedSize(),
+                        stats.hitCount(),
+                        stats.missCount(),
+                        stats.hitRate(),
+                        stats.evictionCount(),
+                        stats.loadCount(),
+                        stats.averageLoadPenalty() / 1_000_000.0));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Hibernate second-level cache regions, including the query cache, with counts since
+     * startup. Empty unless hibernate.generate_statistics is on.
+     */
+    public Map<String, RegionStatistics> getRegionStatistics() {
+        Map<String, RegionStatistics> statistics = new TreeMap<>();
+        Statistics hibernateStatistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!hibernateStatistics.isStatisticsEnabled()) {
+            return statistics;
+        }
+        for (String name : hibernateStatistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = hibernateStatistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                long requests = region.getHitCount() + region.getMissCount();
+                statistics.put(name, new RegionStatistics(
+                        region.getHitCount(),
+                        region.getMissCount(),
+                        requests == 0 ? 0.0 : (double) region.getHitCount() / requests,
+                        region.getPutCount()));
+            }
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,98 @@
+package com.task.library.service;
+
+import com.task.library.config.CacheConfig;
+import com.task.library.dto.VersionedList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Counters that move forward on every committed change to books or to patrons, for the
+ * ETags of the list endpoints. They start from the startup time rather than zero, so an
+ * ETag handed out before a restart never matches one handed out after it. A counter is
+ * bumped after the commit, in the same atomic step that patches or drops the cached list
+ * it versions, so a cached list is current exactly when its version equals the counter.
+ */
+@Component
+public class CatalogVersion {
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final AtomicLong books = new AtomicLong(epoch);
+
+    private final AtomicLong patrons = new AtomicLong(epoch);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long books() {
+        return books.get();
+    }
+
+    public long patrons() {
+        return patrons.get();
+    }
+
+    void booksChanged() {
+        changed(CacheConfig.BOOK_LIST, null);
+    }
+
+    void patronsChanged() {
+        changed(CacheConfig.PATRON_LIST, null);
+    }
+
+    /**
+     * The current version of the listing kept in the given list cache.
+     */
+    long current(String listCache) {
+        return counter(listCache).get();
+    }
+
+    /**
+     * After commit, moves the counter of the given list cache forward and applies the
+     * change to the cached list. A list that missed an earlier change, or a change that
+     * cannot be applied as a patch, drops the entry instead.
+     */
+    <T> void changed(String listCache, UnaryOperator<List<T>> change) {
+        AfterCommit.run(() -> advance(listCache, change));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void advance(String listCache, UnaryOperator<List<T>> change) {
+        AtomicLong counter = counter(listCache);
+        Cache cache = cacheManager.getCache(listCache);
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            ((ConcurrentMap<Object, Object>) caffeine.asMap()).compute(SimpleKey.EMPTY, (key, cached) -> {
+                long next = counter.incrementAndGet();
+                if (change != null && cached instanceof VersionedList<?> list && list.getVersion() == next - 1) {
+                    return new VersionedList<>(next, change.apply((List<T>) list.getItems()));
+                }
+                return null;
+            });
+        } else {
+            counter.incrementAndGet();
+            if (cache != null) {
+                cache.evictIfPresent(SimpleKey.EMPTY);
+            }
+        }
+    }
+
+    private AtomicLong counter(String listCache) {
+        return switch (listCache) {
+            case CacheConfig.BOOK_LIST -> books;
+            case CacheConfig.PATRON_LIST -> patrons;
+            default -> throw new IllegalArgumentException("No catalog version for cache " + listCache);
+        };
+    }
+}
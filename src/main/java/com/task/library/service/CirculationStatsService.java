@@ -0,0 +1,447 @@
+package com.task.library.service;
+
+import com.task.library.dto.DailyCount;
+import com.task.library.dto.DailyVolume;
+import com.task.library.dto.RankedCount;
+import com.task.library.exception.BadRequestException;
+import com.task.library.repository.BorrowingRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Checkout and return statistics over rolling windows of up to a year, kept in memory and
+ * fed by BorrowingService after its transactions commit, so dashboards never group the
+ * loan history.
+ * <p>
+ * Each day has lock-free counters. While a day is open (today and yesterday) it also counts
+ * checkouts per book and per patron exactly; once closed it is sealed into an immutable
+ * ranking of its top {@link #DAY_CAPACITY} books and patrons. A window merges the rankings
+ * of its days, so counts are exact for items that ranked on every day they were borrowed
+ * and may undercount the long tail; the merge of the sealed days is cached until the next
+ * seal. The last year is rebuilt from history at startup, one
+ * month of days per parallel task.
+ */
+@Service
+public class CirculationStatsService implements SmartInitializingSingleton {
+
+    public static final int MAX_WINDOW_DAYS = 365;
+
+    public static final int MAX_TOP_LIMIT = 100;
+
+    static final int DAY_CAPACITY = 256;
+
+    // A power of two above the longest window, so each retained day has its own slot
+    private static final int DAY_SLOTS = 512;
+
+    private static final int REBUILD_CHUNK_DAYS = 30;
+
+    private static final Comparator<RankedCount> RANKING_ORDER =
+            Comparator.comparingLong(RankedCount::getCount).reversed().thenComparing(RankedCount::getId);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    private final AtomicReferenceArray<Day> days = new AtomicReferenceArray<>(DAY_SLOTS);
+
+    private volatile SealedDays sealedDays = new SealedDays(Long.MIN_VALUE);
+
+    // Guards sealing and reloading; reload queries the database, which must not block inside a monitor on a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    enum Dimension { BOOKS, PATRONS }
+
+    public void recordCheckout(Long bookId, Long patronId, LocalDate date) {
+        AfterCommit.run(() -> {
+            Day day = day(date.toEpochDay(), true);
+            if (day != null) {
+                day.checkouts.increment();
+                day.counts[Dimension.BOOKS.ordinal()].add(bookId, 1);
+                day.counts[Dimension.PATRONS.ordinal()].add(patronId, 1);
+            }
+        });
+    }
+
+    public void recordReturn(LocalDate date) {
+        AfterCommit.run(() -> {
+            Day day = day(date.toEpochDay(), true);
+            if (day != null) {
+                day.returns.increment();
+            }
+        });
+    }
+
+    public List<DailyVolume> getDailyVolume(int windowDays) {
+        return getDailyVolume(windowDays, LocalDate.now());
+    }
+
+    public List<RankedCount> getTopBooks(int windowDays, Integer limit) {
+        return top(Dimension.BOOKS, windowDays, limit, LocalDate.now());
+    }
+
+    public List<RankedCount> getTopPatrons(int windowDays, Integer limit) {
+        return top(Dimension.PATRONS, windowDays, limit, LocalDate.now());
+    }
+
+    /**
+     * @return one entry per day of the window, oldest first, including days without loans
+     */
+    List<DailyVolume> getDailyVolume(int windowDays, LocalDate today) {
+        checkWindow(windowDays);
+        long last = today.toEpochDay();
+        List<DailyVolume> volume = new ArrayList<>(windowDays);
+        for (long epochDay = last - windowDays + 1; epochDay <= last; epochDay++) {
+            Day day = day(epochDay, false);
+            volume.add(new DailyVolume(LocalDate.ofEpochDay(epochDay),
+                    day == null ? 0 : day.checkouts.sum(), day == null ? 0 : day.returns.sum()));
+        }
+        return volume;
+    }
+
+    /**
+     * Days up to the last seal are merged once per window start and cached; only the days
+     * after it and the best {@code limit} merged entries are looked at per call.
+     */
+    List<RankedCount> top(Dimension dimension, int windowDays, Integer limit, LocalDate today) {
+        checkWindow(windowDays);
+        int size = limit == null ? 10 : Math.max(1, Math.min(limit, MAX_TOP_LIMIT));
+        long last = today.toEpochDay();
+        long first = last - windowDays + 1;
+        SealedDays sealed = sealedDays;
+        Merged merged = first <= sealed.through ? sealed.merged(dimension, first) : Merged.EMPTY;
+
+        Map<Long, Long> recent = new HashMap<>();
+        for (long epochDay = Math.max(first, sealed.through + 1); epochDay <= last; epochDay++) {
+            Day day = day(epochDay, false);
+            if (day != null) {
+                day.counts[dimension.ordinal()].addTo(recent);
+            }
+        }
+
+        // Items borrowed since the last seal are rescored; of the rest only the merged leaders can rank
+        PriorityQueue<RankedCount> best = new PriorityQueue<>(size + 1, RANKING_ORDER.reversed());
+        recent.forEach((id, count) -> offer(best, size, new RankedCount(id, merged.count(id) + count)));
+        int taken = 0;
+        for (int i = 0; i < merged.ranked.length && taken < size; i++) {
+            if (!recent.containsKey(merged.ranked[i].getId())) {
+                offer(best, size, merged.ranked[i]);
+                taken++;
+            }
+        }
+        List<RankedCount> top = new ArrayList<>(best);
+        top.sort(RANKING_ORDER);
+        return top;
+    }
+
+    @Scheduled(fixedDelayString = "${library.stats.seal-interval:PT10M}")
+    public void sealClosedDays() {
+        sealClosedDays(LocalDate.now());
+    }
+
+    /**
+     * Replaces the exact per-item counts of every day before yesterday with their top
+     * rankings and drops the cached window merges. Yesterday stays open for loans
+     * committed just after midnight.
+     */
+    void sealClosedDays(LocalDate today) {
+        lock.lock();
+        try {
+            seal(today);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void seal(LocalDate today) {
+        long lastClosed = today.toEpochDay() - 2;
+        boolean changed = lastClosed != sealedDays.through;
+        for (long epochDay = lastClosed - MAX_WINDOW_DAYS; epochDay <= lastClosed; epochDay++) {
+            Day day = day(epochDay, false);
+            if (day != null) {
+                for (Counts counts : day.counts) {
+                    changed |= counts.seal();
+                }
+            }
+        }
+        if (changed) {
+            sealedDays = new SealedDays(lastClosed);
+        }
+    }
+
+    private static void offer(PriorityQueue<RankedCount> best, int size, RankedCount candidate) {
+        if (best.size() < size) {
+            best.add(candidate);
+        } else if (RANKING_ORDER.compare(candidate, best.peek()) < 0) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * Drops every counter and rebuilds the last year from the repository, e.g. after the
+     * loans were replayed from the journal. Checkouts recorded while it runs may be counted
+     * twice.
+     */
+    public void reload() {
+        lock.lock();
+        try {
+            rebuild();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        for (int slot = 0; slot < DAY_SLOTS; slot++) {
+            days.set(slot, null);
+        }
+        sealedDays = new SealedDays(Long.MIN_VALUE);
+        LocalDate today = LocalDate.now();
+        LocalDate first = today.minusDays(MAX_WINDOW_DAYS - 1);
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (LocalDate from = first; !from.isAfter(today); from = from.plusDays(REBUILD_CHUNK_DAYS)) {
+            LocalDate chunkFrom = from;
+            LocalDate chunkTo = from.plusDays(REBUILD_CHUNK_DAYS - 1).isAfter(today) ? today : from.plusDays(REBUILD_CHUNK_DAYS - 1);
+            chunks.add(CompletableFuture.runAsync(() -> load(chunkFrom, chunkTo)));
+        }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        seal(today);
+        long checkouts = getDailyVolume(MAX_WINDOW_DAYS, today).stream().mapToLong(DailyVolume::getCheckouts).sum();
+        logger.info("Circulation statistics rebuilt from {} checkouts since {}", checkouts, first);
+    }
+
+    private void load(LocalDate from, LocalDate to) {
+        for (DailyCount count : borrowingRecordRepository.countCheckoutsByDayAndBook(from, to)) {
+            Day day = day(count.getDay().toEpochDay(), true);
+            day.checkouts.add(count.getCount());
+            day.counts[Dimension.BOOKS.ordinal()].add(count.getId(), count.getCount());
+        }
+        for (DailyCount count : borrowingRecordRepository.countCheckoutsByDayAndPatron(from, to)) {
+            day(count.getDay().toEpochDay(), true).counts[Dimension.PATRONS.ordinal()].add(count.getId(), count.getCount());
+        }
+        for (DailyCount count : borrowingRecordRepository.countReturnsByDay(from, to)) {
+            day(count.getDay().toEpochDay(), true).returns.add(count.getCount());
+        }
+    }
+
+    /**
+     * @return the day's counters, creating them if asked unless its slot already holds a
+     * later day; otherwise null
+     */
+    private Day day(long epochDay, boolean create) {
+        int slot = (int) Math.floorMod(epochDay, (long) DAY_SLOTS);
+        while (true) {
+            Day current = days.get(slot);
+            if (current != null && current.epochDay == epochDay) {
+                return current;
+            }
+            if (!create || current != null && current.epochDay > epochDay) {
+                return null;
+            }
+            Day created = new Day(epochDay);
+            if (days.compareAndSet(slot, current, created)) {
+                return created;
+            }
+        }
+    }
+
+    private static void checkWindow(int windowDays) {
+        if (windowDays < 1 || windowDays > MAX_WINDOW_DAYS) {
+            throw new BadRequestException("days must be between 1 and " + MAX_WINDOW_DAYS);
+        }
+    }
+
+    private static final class Day {
+
+        final long epochDay;
+
+        final LongAdder checkouts = new LongAdder();
+
+        final LongAdder returns = new LongAdder();
+
+        final Counts[] counts = {new Counts(), new Counts()};
+
+        Day(long epochDay) {
+            this.epochDay = epochDay;
+        }
+    }
+
+    /**
+     * Per-item checkouts of one day: exact while the day is open, its top entries once
+     * sealed. Items counted after the day is sealed only reach the day's totals.
+     */
+    private static final class Counts {
+
+        private volatile Map<Long, LongAdder> open = new ConcurrentHashMap<>();
+
+        private volatile Ranking sealed = Ranking.EMPTY;
+
+        void add(Long id, long count) {
+            Map<Long, LongAdder> exact = open;
+            if (exact != null && id != null) {
+                exact.computeIfAbsent(id, key -> new LongAdder()).add(count);
+            }
+        }
+
+        /**
+         * @return whether the day was still open
+         */
+        boolean seal() {
+            Map<Long, LongAdder> exact = open;
+            if (exact == null) {
+                return false;
+            }
+            sealed = Ranking.of(exact, DAY_CAPACITY);
+            open = null;
+            return true;
+        }
+
+        void addTo(Map<Long, Long> totals) {
+            Map<Long, LongAdder> exact = open;
+            if (exact != null) {
+                exact.forEach((id, count) -> totals.merge(id, count.sum(), Long::sum));
+            } else {
+                Ranking ranking = sealed;
+                for (int i = 0; i < ranking.ids.length; i++) {
+                    totals.merge(ranking.ids[i], ranking.counts[i], Long::sum);
+                }
+            }
+        }
+    }
+
+    private static final class Ranking {
+
+        static final Ranking EMPTY = new Ranking(new long[0], new long[0]);
+
+        final long[] ids;
+
+        final long[] counts;
+
+        private Ranking(long[] ids, long[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+
+        static Ranking of(Map<Long, LongAdder> exact, int capacity) {
+            List<RankedCount> entries = new ArrayList<>(exact.size());
+            exact.forEach((id, count) -> entries.add(new RankedCount(id, count.sum())));
+            entries.sort(RANKING_ORDER);
+            int size = Math.min(entries.size(), capacity);
+            long[] ids = new long[size];
+            long[] counts = new long[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = entries.get(i).getId();
+                counts[i] = entries.get(i).getCount();
+            }
+            return new Ranking(ids, counts);
+        }
+    }
+
+    /**
+     * The days sealed by one run of {@link #sealClosedDays(LocalDate)}, with their merged
+     * rankings per window start. Replaced as a whole when more days are sealed.
+     */
+    private final class SealedDays {
+
+        // Only a few window lengths are expected; others are merged per call rather than cached
+        private static final int MAX_CACHED_WINDOWS = 8;
+
+        final long through;
+
+        private final Map<Long, Merged> windows = new ConcurrentHashMap<>();
+
+        SealedDays(long through) {
+            this.through = through;
+        }
+
+        Merged merged(Dimension dimension, long first) {
+            long key = first * Dimension.values().length + dimension.ordinal();
+            Merged merged = windows.get(key);
+            if (merged == null) {
+                merged = Merged.of(dimension, first, through, epochDay -> day(epochDay, false));
+                if (windows.size() < MAX_CACHED_WINDOWS) {
+                    windows.putIfAbsent(key, merged);
+                }
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * Summed rankings of a run of sealed days, in ranking order and by id.
+     */
+    private static final class Merged {
+
+        static final Merged EMPTY = new Merged(new RankedCount[0], new LongLongHashMap(0));
+
+        final RankedCount[] ranked;
+
+        private final LongLongHashMap counts;
+
+        private Merged(RankedCount[] ranked, LongLongHashMap counts) {
+            this.ranked = ranked;
+            this.counts = counts;
+        }
+
+        long count(long id) {
+            long count = counts.get(id);
+            return count == LongLongHashMap.NO_VALUE ? 0 : count;
+        }
+
+        static Merged of(Dimension dimension, long first, long last, LongFunction<Day> days) {
+            LongLongHashMap counts = new LongLongHashMap(DAY_CAPACITY * 4);
+            long[] ids = new long[DAY_CAPACITY];
+            int distinct = 0;
+            for (long epochDay = first; epochDay <= last; epochDay++) {
+                Day day = days.apply(epochDay);
+                if (day == null) {
+                    continue;
+                }
+                Ranking ranking = day.counts[dimension.ordinal()].sealed;
+                for (int i = 0; i < ranking.ids.length; i++) {
+                    long id = ranking.ids[i];
+                    long count = counts.get(id);
+                    if (count == LongLongHashMap.NO_VALUE) {
+                        if (distinct == ids.length) {
+                            ids = Arrays.copyOf(ids, distinct * 2);
+                        }
+                        ids[distinct++] = id;
+                        count = 0;
+                    }
+                    counts.put(id, count + ranking.counts[i]);
+                }
+            }
+            RankedCount[] ranked = new RankedCount[distinct];
+            for (int i = 0; i < distinct; i++) {
+                ranked[i] = new RankedCount(ids[i], counts.get(ids[i]));
+            }
+            Arrays.sort(ranked, RANKING_ORDER);
+            return new Merged(ranked, counts);
+        }
+    }
+}
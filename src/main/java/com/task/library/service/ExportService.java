@@ -0,0 +1,95 @@
+package com.task.library.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.task.library.dto.BorrowingRecordSummary;
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import com.task.library.repository.BookRepository;
+import com.task.library.repository.BorrowingRecordRepository;
+import com.task.library.repository.PatronRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streams full table dumps as newline-delimited JSON. Rows are read through a
+ * JDBC cursor and detached once written, so heap use does not grow with table size.
+ */
+@Service
+public class ExportService {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectWriter writer;
+
+    @Autowired
+    public ExportService(ObjectMapper objectMapper) {
+        // Loan history is exported on its own; never walk the lazy collections per row
+        this.writer = objectMapper.copy()
+                .addMixIn(Book.class, IgnoreBorrowingRecords.class)
+                .addMixIn(Patron.class, IgnoreBorrowingRecords.class)
+                .writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream out) throws IOException {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            writeNdjson(out, books, entityManager::detach);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportPatrons(OutputStream out) throws IOException {
+        try (Stream<Patron> patrons = patronRepository.streamAll()) {
+            writeNdjson(out, patrons, entityManager::detach);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportBorrowingRecords(OutputStream out) throws IOException {
+        try (Stream<BorrowingRecordSummary> records = borrowingRecordRepository.streamAllSummaries()) {
+            writeNdjson(out, records, record -> {});
+        }
+    }
+
+    private <T> void writeNdjson(OutputStream out, Stream<T> rows, Consumer<T> afterWrite) throws IOException {
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                writer.writeValue(generator, row);
+                generator.writeRaw('\n');
+                afterWrite.accept(row);
+            }
+        }
+    }
+
+    @JsonIgnoreProperties("borrowingRecords")
+    private abstract static class IgnoreBorrowingRecords {
+    }
+}
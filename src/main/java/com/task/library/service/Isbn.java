@@ -0,0 +1,86 @@
+package com.task.library.service;
+
+import com.task.library.exception.BadRequestException;
+
+/**
+ * Parses ISBN-10 and ISBN-13 strings, hyphens and spaces allowed, into the ISBN-13
+ * number packed in a long. ISBN-10s are converted to their 978-prefixed ISBN-13.
+ * Both check digits are verified.
+ */
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    public static long parse(String isbn) {
+        if (isbn == null) {
+            throw invalid(null);
+        }
+        String digits = isbn.replace("-", "").replace(" ", "");
+        if (digits.length() == 10) {
+            return fromIsbn10(digits, isbn);
+        }
+        if (digits.length() == 13 && (digits.startsWith("978") || digits.startsWith("979"))) {
+            long value = 0;
+            int sum = 0;
+            for (int i = 0; i < 13; i++) {
+                int digit = digit(digits.charAt(i), isbn);
+                sum += (i % 2 == 0) ? digit : 3 * digit;
+                value = value * 10 + digit;
+            }
+            if (sum % 10 != 0) {
+                throw invalid(isbn);
+            }
+            return value;
+        }
+        throw invalid(isbn);
+    }
+
+    /**
+     * Canonical form stored on the book: the 13 digits without separators.
+     */
+    public static String normalize(String isbn) {
+        return format(parse(isbn));
+    }
+
+    public static String format(long isbn13) {
+        return Long.toString(isbn13);
+    }
+
+    private static long fromIsbn10(String digits, String isbn) {
+        int sum = 0;
+        long value = 978;
+        for (int i = 0; i < 10; i++) {
+            char c = digits.charAt(i);
+            int digit = (i == 9 && (c == 'X' || c == 'x')) ? 10 : digit(c, isbn);
+            sum += (10 - i) * digit;
+            if (i < 9) {
+                value = value * 10 + digit;
+            }
+        }
+        if (sum % 11 != 0) {
+            throw invalid(isbn);
+        }
+        return value * 10 + isbn13CheckDigit(value);
+    }
+
+    private static int isbn13CheckDigit(long first12) {
+        int sum = 0;
+        for (int i = 11; i >= 0; i--, first12 /= 10) {
+            int digit = (int) (first12 % 10);
+            sum += (i % 2 == 0) ? digit : 3 * digit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static int digit(char c, String isbn) {
+        if (c < '0' || c > '9') {
+            throw invalid(isbn);
+        }
+        return c - '0';
+    }
+
+    private static BadRequestException invalid(String isbn) {
+        return new BadRequestException("Invalid ISBN " + isbn);
+    }
+}
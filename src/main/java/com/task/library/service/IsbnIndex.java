@@ -0,0 +1,133 @@
+package com.task.library.service;
+
+import com.task.library.dto.BookSummary;
+import com.task.library.exception.BadRequestException;
+import com.task.library.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Resolves ISBN-13 numbers to book ids from memory. Lookups take an optimistic read
+ * stamp and only fall back to a read lock if a write raced them, so a scan costs no
+ * lock contention, no boxing and no SQL.
+ * <p>
+ * The map is loaded before the application starts serving requests and kept in sync by
+ * BookService and BookImportService after their transactions commit. Stored ISBNs that
+ * do not parse, from before ISBNs were normalized, are skipped.
+ */
+@Component
+public class IsbnIndex implements SmartInitializingSingleton {
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Guarded by lock; replaced as a whole by reload
+    private LongLongHashMap bookIds = new LongLongHashMap(1024);
+
+    /**
+     * @return the id of the book with this ISBN-13, or {@link LongLongHashMap#NO_VALUE}
+     */
+    public long findBookId(long isbn13) {
+        long stamp = lock.tryOptimisticRead();
+        long bookId = bookIds.get(isbn13);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                bookId = bookIds.get(isbn13);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return bookId;
+    }
+
+    public void put(String isbn, Long bookId) {
+        long isbn13 = Isbn.parse(isbn);
+        AfterCommit.run(() -> write(() -> bookIds.put(isbn13, bookId)));
+    }
+
+    public void putAll(Collection<BookSummary> books) {
+        AfterCommit.run(() -> write(() -> books.forEach(book -> bookIds.put(Isbn.parse(book.getIsbn()), book.getId()))));
+    }
+
+    /**
+     * Drops the mapping if it still points at the given book. Unparseable ISBNs were never
+     * indexed, so they are ignored.
+     */
+    public void remove(String isbn, Long bookId) {
+        long isbn13;
+        try {
+            isbn13 = Isbn.parse(isbn);
+        } catch (BadRequestException e) {
+            return;
+        }
+        AfterCommit.run(() -> write(() -> {
+            if (bookIds.get(isbn13) == bookId) {
+                bookIds.remove(isbn13);
+            }
+        }));
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return bookIds.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * Loads every book's ISBN from the repository into a new map and swaps it in, e.g.
+     * after the books were replayed from the journal.
+     */
+    public void reload() {
+        LongLongHashMap loaded = new LongLongHashMap(1024);
+        long after = 0L;
+        int skipped = 0;
+        List<BookSummary> page;
+        do {
+            page = bookRepository.findSummariesAfter(after, Limit.of(LOAD_PAGE_SIZE));
+            for (BookSummary book : page) {
+                try {
+                    loaded.put(Isbn.parse(book.getIsbn()), book.getId());
+                } catch (RuntimeException e) {
+                    skipped++;
+                }
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        write(() -> bookIds = loaded);
+        logger.info("ISBN index loaded {} books, skipped {} unparseable ISBNs", size(), skipped);
+    }
+
+    private void write(Runnable change) {
+        long stamp = lock.writeLock();
+        try {
+            change.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.task.library.service;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Progress callback a report reports to as it writes rows.
+ */
+public interface JobProgress {
+
+    void total(long rows);
+
+    /**
+     * Counts one written row.
+     *
+     * @throws CancellationException if the job has been cancelled; the report stops where it is
+     */
+    void advance();
+}
@@ -0,0 +1,282 @@
+package com.task.library.service;
+
+import com.task.library.dto.JobRequest;
+import com.task.library.dto.JobStatus;
+import com.task.library.exception.BadRequestException;
+import com.task.library.exception.ConflictException;
+import com.task.library.exception.ResourceNotFoundException;
+import com.task.library.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs long report queries on a small pool of its own, so a heavy read occupies one of
+ * a few job workers and at most that many database connections rather than a request
+ * thread. Queued jobs run by priority, then in submission order; the queue is bounded
+ * and a full queue turns new jobs away with 503. Each result is written to a
+ * {@code .part} file in the spool directory and renamed once complete, then kept for
+ * the retention period.
+ */
+@Service
+public class JobService {
+
+    private static final String RESULT_SUFFIX = ".ndjson";
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ReportService reportService;
+
+    private final Path directory;
+
+    private final int maxQueued;
+
+    private final Duration retention;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public JobService(ReportService reportService,
+                      @Value("${library.jobs.dir:data/jobs}") Path directory,
+                      @Value("${library.jobs.workers:2}") int workers,
+                      @Value("${library.jobs.max-queued:100}") int maxQueued,
+                      @Value("${library.jobs.retention:1h}") Duration retention) throws IOException {
+        this.reportService = reportService;
+        this.directory = directory;
+        this.maxQueued = maxQueued;
+        this.retention = retention;
+        Files.createDirectories(directory);
+        deleteSpoolFiles();
+        AtomicInteger threads = new AtomicInteger();
+        // Jobs are Comparable, so the unbounded priority queue hands the most urgent one to the next free worker
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public JobStatus submit(JobRequest request) {
+        if (request.getType() == JobRequest.Type.PATRON_STATEMENT && request.getPatronId() == null) {
+            throw new BadRequestException("patronId is required for a " + request.getType() + " job");
+        }
+        JobRequest.Priority priority = request.getPriority() == null ? JobRequest.Priority.NORMAL : request.getPriority();
+        Job job = new Job(UUID.randomUUID().toString(), request.getType(), priority, request.getPatronId(), sequence.incrementAndGet());
+        synchronized (executor) {
+            if (executor.getQueue().size() >= maxQueued) {
+                throw new ServiceUnavailableException("Too many report jobs queued, try again later");
+            }
+            jobs.put(job.id, job);
+            executor.execute(job);
+        }
+        return job.status();
+    }
+
+    public JobStatus getStatus(String id) {
+        return find(id).status();
+    }
+
+    /**
+     * A queued job is dropped from the queue; a running one stops at its next row.
+     * Cancelling a finished job changes nothing.
+     */
+    public JobStatus cancel(String id) {
+        Job job = find(id);
+        synchronized (job) {
+            job.cancelRequested = true;
+            if (job.state == JobStatus.State.QUEUED && executor.remove(job)) {
+                job.finish(JobStatus.State.CANCELLED, null);
+            }
+        }
+        return job.status();
+    }
+
+    /**
+     * @return the spooled result of a job that has succeeded
+     * @throws ConflictException if the job has not finished or did not succeed
+     */
+    public Path getResult(String id) {
+        Job job = find(id);
+        if (job.state != JobStatus.State.SUCCEEDED) {
+            throw new ConflictException("Job " + id + " has no result, it is " + job.state);
+        }
+        return resultFile(job);
+    }
+
+    @Scheduled(fixedDelayString = "${library.jobs.purge-interval:PT5M}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            Instant finishedAt = job.finishedAt;
+            if (finishedAt == null || finishedAt.isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(resultFile(job));
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Job find(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Job not found with id " + id);
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.cancelRequested) {
+                job.finish(JobStatus.State.CANCELLED, null);
+                return;
+            }
+            job.state = JobStatus.State.RUNNING;
+            job.startedAt = Instant.now();
+        }
+        Path partial = directory.resolve(job.id + RESULT_SUFFIX + PARTIAL_SUFFIX);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+                switch (job.type) {
+                    case LOAN_HISTORY -> reportService.writeLoanHistory(out, job);
+                    case PATRON_STATEMENT -> reportService.writePatronStatement(job.patronId, out, job);
+                    case CATALOG_AUDIT -> reportService.writeCatalogAudit(out, job);
+                }
+            }
+            Files.move(partial, resultFile(job), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.finish(JobStatus.State.SUCCEEDED, null);
+        } catch (CancellationException e) {
+            deleteQuietly(partial);
+            job.finish(JobStatus.State.CANCELLED, null);
+        } catch (Exception e) {
+            deleteQuietly(partial);
+            logger.warn("Report job {} ({}) failed", job.id, job.type, e);
+            job.finish(JobStatus.State.FAILED, e.getMessage());
+        }
+    }
+
+    private Path resultFile(Job job) {
+        return directory.resolve(job.id + RESULT_SUFFIX);
+    }
+
+    // Job state lives in memory only, so results and partial files left by an earlier run cannot be served
+    private void deleteSpoolFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                "*{" + RESULT_SUFFIX + "," + RESULT_SUFFIX + PARTIAL_SUFFIX + "}")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report file {}", file, e);
+        }
+    }
+
+    private final class Job implements Runnable, Comparable<Job>, JobProgress {
+
+        final String id;
+
+        final JobRequest.Type type;
+
+        final JobRequest.Priority priority;
+
+        final Long patronId;
+
+        final long sequence;
+
+        final Instant createdAt = Instant.now();
+
+        volatile JobStatus.State state = JobStatus.State.QUEUED;
+
+        volatile long processed;
+
+        volatile long total = -1;
+
+        volatile Instant startedAt;
+
+        volatile Instant finishedAt;
+
+        volatile String error;
+
+        volatile boolean cancelRequested;
+
+        Job(String id, JobRequest.Type type, JobRequest.Priority priority, Long patronId, long sequence) {
+            this.id = id;
+            this.type = type;
+            this.priority = priority;
+            this.patronId = patronId;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            JobService.this.run(this);
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void total(long rows) {
+            total = rows;
+        }
+
+        @Override
+        public void advance() {
+            if (cancelRequested) {
+                throw new CancellationException("Job " + id + " was cancelled");
+            }
+            processed++;
+        }
+
+        synchronized void finish(JobStatus.State finalState, String message) {
+            error = message;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        JobStatus status() {
+            return new JobStatus(id, type, priority, state, processed, total, createdAt, startedAt, finishedAt, error);
+        }
+    }
+}
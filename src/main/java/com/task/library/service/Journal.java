@@ -0,0 +1,222 @@
+package com.task.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only record of every committed book, patron and loan change, for audit and for
+ * rebuilding the database with {@link JournalReplayService}.
+ * <p>
+ * Services append after their transaction commits. The payload is built on the calling
+ * thread and handed over through a {@link JournalRing}, so an append costs one atomic
+ * increment and a few stores; serializing, checksumming and writing happen on a single
+ * writer thread that drains the ring in batches into memory-mapped {@link JournalSegments}.
+ * Written records reach the page cache at once and are forced to disk every force
+ * interval, so a process crash loses nothing already drained and a power loss at most one
+ * interval.
+ */
+@Component
+public class Journal {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    private static final byte[] SKIPPED_PAYLOAD = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final long forceIntervalNanos;
+
+    private final JournalRing ring;
+
+    private final JournalSegments segments;
+
+    private final Thread writer;
+
+    // Journal sequence of ring sequence 0
+    private final long firstSequence;
+
+    private volatile boolean running = true;
+
+    // Set on the first change made since startup, journaled or not, committed or not
+    private volatile boolean written;
+
+    private long lastForceNanos = System.nanoTime();
+
+    private boolean unforced;
+
+    @Autowired
+    public Journal(ObjectMapper objectMapper,
+                   @Value("${library.journal.enabled:true}") boolean enabled,
+                   @Value("${library.journal.dir:data/journal}") Path directory,
+                   @Value("${library.journal.segment-size:64MB}") DataSize segmentSize,
+                   @Value("${library.journal.ring-size:65536}") int ringSize,
+                   @Value("${library.journal.force-interval:1s}") Duration forceInterval) throws IOException {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.forceIntervalNanos = forceInterval.toNanos();
+        if (!enabled) {
+            ring = null;
+            segments = null;
+            writer = null;
+            firstSequence = 1;
+            return;
+        }
+        ring = new JournalRing(ringSize);
+        segments = new JournalSegments(directory, Math.toIntExact(segmentSize.toBytes()));
+        firstSequence = segments.nextSequence();
+        writer = new Thread(this::write, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Journal in {} continues at sequence {}", directory.toAbsolutePath(), firstSequence);
+    }
+
+    /**
+     * Appends a record once the current transaction commits, or at once outside one. The
+     * payload supplier runs at that point, so it sees the committed state, e.g. the version
+     * an update flushed.
+     */
+    public void append(JournalRecord.Type type, Supplier<?> payload) {
+        if (!written) {
+            written = true;
+        }
+        if (enabled) {
+            AfterCommit.run(() -> ring.publish(type, payload.get(), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Tells whether a book, patron or loan change has been made since startup, even with
+     * the journal disabled or by a transaction that later rolled back.
+     */
+    public boolean hasWritten() {
+        return written;
+    }
+
+    /**
+     * @return the sequence of the last record appended, written or not; 0 if there is none
+     */
+    public long lastSequence() {
+        return enabled ? firstSequence + ring.claimedSequence() : 0;
+    }
+
+    /**
+     * Waits until every record appended before the call is in the segment files.
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        long target = ring.claimedSequence();
+        while (ring.drainedSequence() < target) {
+            if (!writer.isAlive()) {
+                throw new IllegalStateException("Journal writer has stopped");
+            }
+            LockSupport.parkNanos(100_000L);
+        }
+    }
+
+    /**
+     * Reads the records from {@code fromSequence} on, oldest first, after flushing.
+     */
+    public void replay(long fromSequence, Consumer<JournalRecord> consumer) {
+        flush();
+        try {
+            JournalSegments.read(directory, record -> {
+                if (record.getSequence() >= fromSequence) {
+                    consumer.accept(record);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (!enabled || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+
+    private void write() {
+        while (true) {
+            int drained = ring.drain(BATCH_SIZE, this::writeRecord);
+            long now = System.nanoTime();
+            if (unforced && now - lastForceNanos >= forceIntervalNanos) {
+                force(now);
+            }
+            if (drained == 0) {
+                if (!running && ring.drainedSequence() >= ring.claimedSequence()) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        try {
+            segments.close();
+        } catch (IOException e) {
+            logger.error("Could not close the journal", e);
+        }
+    }
+
+    private void writeRecord(long ringSequence, long timestamp, JournalRecord.Type type, Object payload) {
+        long sequence = firstSequence + ringSequence;
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not serialize journal record {} ({})", sequence, type, e);
+            json = null;
+        }
+        try {
+            if (json != null && !segments.append(timestamp, type, json)) {
+                logger.error("Journal record {} of {} bytes is larger than a segment and was dropped", sequence, json.length);
+                json = null;
+            }
+            // The sequence was handed out with the ring slot, so a dropped record still takes it on disk
+            if (json == null) {
+                segments.append(timestamp, JournalRecord.Type.SKIPPED, SKIPPED_PAYLOAD);
+            }
+            unforced = true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not write journal record {} ({})", sequence, type, e);
+        }
+    }
+
+    private void force(long now) {
+        try {
+            segments.force();
+        } catch (RuntimeException e) {
+            logger.error("Could not force the journal to disk", e);
+        }
+        lastForceNanos = now;
+        unforced = false;
+    }
+}
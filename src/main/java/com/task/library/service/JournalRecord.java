@@ -0,0 +1,28 @@
+package com.task.library.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One committed change read back from the journal. The payload is the JSON written for
+ * the change: a BookDto or PatronDto when saved, the id when deleted, a LoanChange for
+ * checkouts and returns, and null for a skipped record.
+ */
+@Getter
+@AllArgsConstructor
+public class JournalRecord {
+
+    public enum Type {
+        BOOK_SAVED, BOOK_DELETED, PATRON_SAVED, PATRON_DELETED, LOAN_BORROWED, LOAN_RETURNED,
+        // Stands in for a change that could not be written, so later records keep their sequence
+        SKIPPED
+    }
+
+    private final long sequence;
+
+    private final long timestamp;
+
+    private final Type type;
+
+    private final byte[] payload;
+}
@@ -0,0 +1,223 @@
+package com.task.library.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.library.dto.JournalReplayResult;
+import com.task.library.exception.BadRequestException;
+import com.task.library.exception.ConflictException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.query.TypedParameterValue;
+import org.hibernate.type.StandardBasicTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Rebuilds the database from the {@link Journal}. Records are applied in sequence order,
+ * {@link #CHUNK_SIZE} per transaction: saved books, patrons and loans are upserted with
+ * their journaled ids and deletes are repeated, so replaying onto a database restored from
+ * a backup, or onto an empty one from sequence 1, leaves it as the journal describes. A
+ * saved book or patron only replaces a stored row of a lower version.
+ * <p>
+ * This is a recovery step for a freshly started application, refused once it has written
+ * anything: an id generator that has been used holds a block of ids in memory that
+ * replayed rows may already have. Afterwards the id generators are moved past the
+ * replayed ids and every cache and in-memory index derived from the database is rebuilt.
+ */
+@Service
+public class JournalReplayService {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    // Past the block of ids a pooled sequence hands out per call
+    private static final int SEQUENCE_ALLOCATION = 50;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private Journal journal;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private OverdueTracker overdueTracker;
+
+    @Autowired
+    private CirculationStatsService circulationStatsService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public JournalReplayService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public JournalReplayResult rebuildDatabase(long fromSequence) {
+        if (fromSequence < 1) {
+            throw new BadRequestException("from must be at least 1");
+        }
+        if (journal.hasWritten()) {
+            throw new ConflictException("The journal can only be replayed before the application has written; restart it and replay first");
+        }
+        List<JournalRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        long[] applied = {0, 0};
+        journal.replay(fromSequence, record -> {
+            chunk.add(record);
+            if (chunk.size() == CHUNK_SIZE) {
+                applied[1] = applyChunk(chunk);
+                applied[0] += chunk.size();
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            applied[1] = applyChunk(chunk);
+            applied[0] += chunk.size();
+        }
+        transactionTemplate.executeWithoutResult(status -> restartIdGenerators());
+        rebuildCaches();
+        logger.info("Replayed {} journal records from sequence {}", applied[0], fromSequence);
+        return new JournalReplayResult(fromSequence, applied[0], applied[1]);
+    }
+
+    /**
+     * Clears the entity caches and the Hibernate second-level cache, and reloads the search
+     * index, ISBN index, overdue tracker and circulation statistics from the database.
+     */
+    public void rebuildCaches() {
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        bookSearchIndex.rebuild();
+        isbnIndex.reload();
+        overdueTracker.reload();
+        circulationStatsService.reload();
+        catalogVersion.booksChanged();
+        catalogVersion.patronsChanged();
+    }
+
+    /**
+     * @return the sequence of the last record in the chunk
+     */
+    private long applyChunk(List<JournalRecord> records) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (JournalRecord record : records) {
+                JsonNode payload;
+                try {
+                    payload = objectMapper.readTree(record.getPayload());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unreadable journal record " + record.getSequence(), e);
+                }
+                apply(record.getType(), payload);
+            }
+        });
+        return records.get(records.size() - 1).getSequence();
+    }
+
+    private void apply(JournalRecord.Type type, JsonNode payload) {
+        switch (type) {
+            case BOOK_SAVED -> execute(versionedMerge("book", "title", "author", "publication_year", "isbn", "copies_total", "copies_available"),
+                    payload.get("id").asLong(), payload.get("title").asText(), payload.get("author").asText(),
+                    payload.get("publicationYear").asInt(), payload.get("isbn").asText(), payload.get("copiesTotal").asInt(),
+                    payload.get("copiesAvailable").asInt(), payload.get("version").asLong());
+            case BOOK_DELETED -> execute("delete from book where id = ?1", payload.asLong());
+            // Records journaled before patrons were versioned carry no version, and are applied in sequence order
+            case PATRON_SAVED -> execute(payload.has("version")
+                            ? versionedMerge("patron", "name", "contact_information")
+                            : "merge into patron (id, name, contact_information, version) key (id) values (?1, ?2, ?3, ?4)",
+                    payload.get("id").asLong(), payload.get("name").asText(), payload.get("contactInformation").asText(),
+                    payload.path("version").asLong(0));
+            case PATRON_DELETED -> execute("delete from patron where id = ?1", payload.asLong());
+            case LOAN_BORROWED, LOAN_RETURNED -> {
+                execute("merge into borrowing_record (id, book_id, patron_id, borrow_date, due_date, return_date) " +
+                                "key (id) values (?1, ?2, ?3, ?4, ?5, ?6)",
+                        payload.get("id").asLong(), payload.get("bookId").asLong(), payload.get("patronId").asLong(),
+                        date(payload, "borrowDate"), date(payload, "dueDate"), date(payload, "returnDate"));
+                execute("update book set copies_available = ?1, version = ?2 where id = ?3 and version < ?2",
+                        payload.get("copiesAvailable").asInt(), payload.get("bookVersion").asLong(), payload.get("bookId").asLong());
+            }
+            case SKIPPED -> {
+                // Nothing was recorded for the change that held this sequence
+            }
+        }
+    }
+
+    /**
+     * A merge keyed by id that inserts a missing row and updates a stored one only when the
+     * record's version is greater, so replaying onto a database that already holds a later
+     * change never rolls the row back. Parameters are the id, the given columns in order,
+     * and the version.
+     */
+    private static String versionedMerge(String table, String... columns) {
+        List<String> all = new ArrayList<>();
+        all.add("id");
+        all.addAll(List.of(columns));
+        all.add("version");
+        String parameters = IntStream.rangeClosed(1, all.size()).mapToObj(i -> "?" + i).collect(Collectors.joining(", "));
+        String updates = all.stream().skip(1).map(column -> column + " = s." + column).collect(Collectors.joining(", "));
+        String values = all.stream().map(column -> "s." + column).collect(Collectors.joining(", "));
+        return "merge into " + table + " t using (values (" + parameters + ")) s (" + String.join(", ", all) + ") on t.id = s.id " +
+                "when matched and t.version < s.version then update set " + updates + " " +
+                "when not matched then insert (" + String.join(", ", all) + ") values (" + values + ")";
+    }
+
+    private void restartIdGenerators() {
+        long nextBookId = maxId("book") + SEQUENCE_ALLOCATION + 1;
+        long nextRecordId = maxId("borrowing_record") + SEQUENCE_ALLOCATION + 1;
+        long nextPatronId = maxId("patron") + 1;
+        entityManager.createNativeQuery("alter sequence book_seq restart with " + nextBookId).executeUpdate();
+        entityManager.createNativeQuery("alter sequence borrowing_record_seq restart with " + nextRecordId).executeUpdate();
+        entityManager.createNativeQuery("alter table patron alter column id restart with " + nextPatronId).executeUpdate();
+    }
+
+    private long maxId(String table) {
+        return ((Number) entityManager.createNativeQuery("select coalesce(max(id), 0) from " + table).getSingleResult()).longValue();
+    }
+
+    private void execute(String sql, Object... parameters) {
+        Query query = entityManager.createNativeQuery(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        query.executeUpdate();
+    }
+
+    private static TypedParameterValue<LocalDate> date(JsonNode payload, String field) {
+        JsonNode value = payload.get(field);
+        LocalDate date = value == null || value.isNull() ? null : LocalDate.parse(value.asText());
+        return new TypedParameterValue<>(StandardBasicTypes.LOCAL_DATE, date);
+    }
+}
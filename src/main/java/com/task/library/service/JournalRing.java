@@ -0,0 +1,102 @@
+package com.task.library.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded ring between any number of appending threads and the single journal writer.
+ * An append claims a sequence with one atomic increment, fills its slot and publishes it
+ * by storing the sequence into the slot; no lock is taken. The writer drains published
+ * slots in sequence order. Appenders only wait when the writer is a full ring behind.
+ */
+final class JournalRing {
+
+    interface Sink {
+        void accept(long sequence, long timestamp, JournalRecord.Type type, Object payload);
+    }
+
+    private static final int SPINS_BEFORE_PARK = 100;
+
+    private final int mask;
+
+    private final long[] timestamps;
+
+    private final JournalRecord.Type[] types;
+
+    private final Object[] payloads;
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    // Slot i holds the sequence last published into it
+    private final AtomicLongArray published;
+
+    // Highest sequence the writer has taken out of the ring
+    private volatile long drained = -1;
+
+    JournalRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        timestamps = new long[size];
+        types = new JournalRecord.Type[size];
+        payloads = new Object[size];
+        long[] none = new long[size];
+        Arrays.fill(none, -1L);
+        published = new AtomicLongArray(none);
+    }
+
+    /**
+     * @return the ring sequence of the entry, counting from 0
+     */
+    long publish(JournalRecord.Type type, Object payload, long timestamp) {
+        long sequence = claimed.incrementAndGet();
+        for (int spins = 0; sequence - drained > payloads.length; spins++) {
+            if (spins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000L);
+            }
+        }
+        int slot = (int) sequence & mask;
+        timestamps[slot] = timestamp;
+        types[slot] = type;
+        payloads[slot] = payload;
+        published.set(slot, sequence);
+        return sequence;
+    }
+
+    /**
+     * Hands up to {@code max} published entries to the sink in sequence order, stopping at
+     * the first slot still being filled.
+     *
+     * @return the number of entries drained
+     */
+    int drain(int max, Sink sink) {
+        long next = drained + 1;
+        int count = 0;
+        while (count < max) {
+            int slot = (int) next & mask;
+            if (published.get(slot) != next) {
+                break;
+            }
+            Object payload = payloads[slot];
+            payloads[slot] = null;
+            sink.accept(next, timestamps[slot], types[slot], payload);
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            drained = next - 1;
+        }
+        return count;
+    }
+
+    long claimedSequence() {
+        return claimed.get();
+    }
+
+    long drainedSequence() {
+        return drained;
+    }
+}
@@ -0,0 +1,205 @@
+package com.task.library.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * The journal's segment files. Each segment is preallocated to the segment size, mapped
+ * into memory and named after the sequence of its first record; a record that does not
+ * fit starts the next segment. A record is
+ * <pre>
+ *   int length | int crc32c | byte type | long sequence | long timestamp | payload
+ * </pre>
+ * where the checksum covers everything after it. The length is written last and a zero
+ * length marks the end of the written part, so a record torn by a crash fails its length
+ * or checksum and ends the journal there. Writing is confined to the writer thread.
+ */
+final class JournalSegments {
+
+    static final int HEADER_BYTES = 4 + 4 + 1 + 8 + 8;
+
+    private static final String SUFFIX = ".journal";
+
+    private static final String LOCK_FILE = "journal.lock";
+
+    private static final JournalRecord.Type[] TYPES = JournalRecord.Type.values();
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final FileChannel lockChannel;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer segment;
+
+    private long nextSequence;
+
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * Opens the newest segment for appending after its last intact record, zeroing any torn
+     * bytes behind it, or creates the first segment. A second writer on the same directory,
+     * in this process or another, is refused.
+     */
+    JournalSegments(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Journal directory " + directory.toAbsolutePath() + " is already in use");
+        }
+        List<Path> segments = list(directory);
+        if (segments.isEmpty()) {
+            nextSequence = 1;
+            open(nextSequence);
+            return;
+        }
+        Path newest = segments.get(segments.size() - 1);
+        nextSequence = firstSequence(newest);
+        channel = FileChannel.open(newest, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        int end = scan(segment, record -> nextSequence = record.getSequence() + 1);
+        segment.position(end);
+        if (end + 4 <= segment.limit() && segment.getInt(end) != 0) {
+            for (int position = end; position < segment.limit(); position++) {
+                segment.put(position, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * @return the sequence the next appended record gets
+     */
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * @return false if the record can never fit in a segment; nothing is written for it
+     */
+    boolean append(long timestamp, JournalRecord.Type type, byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (size + 4 > segmentSize) {
+            return false;
+        }
+        // Keep room for the zero length that ends the segment
+        if (segment.position() + size + 4 > segment.limit()) {
+            force();
+            channel.close();
+            open(nextSequence);
+        }
+        int start = segment.position();
+        segment.position(start + 8);
+        segment.put((byte) type.ordinal());
+        segment.putLong(nextSequence);
+        segment.putLong(timestamp);
+        segment.put(payload);
+        crc.reset();
+        crc.update(segment.slice(start + 8, size - 8));
+        segment.putInt(start + 4, (int) crc.getValue());
+        segment.putInt(start, payload.length);
+        nextSequence++;
+        return true;
+    }
+
+    void force() {
+        segment.force();
+    }
+
+    void close() throws IOException {
+        force();
+        channel.close();
+        // Closing the channel releases the directory lock
+        lockChannel.close();
+    }
+
+    /**
+     * Reads every intact record from the oldest segment on, in sequence order. A damaged
+     * record ends the newest segment, whose tail may still be in flight, but is an error in
+     * any earlier one.
+     */
+    static void read(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> segments = list(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int end = scan(segment, consumer);
+                if (i < segments.size() - 1 && end + 4 <= segment.limit() && segment.getInt(end) != 0) {
+                    throw new IllegalStateException("Damaged journal record in " + path.getFileName() + " at byte " + end);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the offset just past the last intact record
+     */
+    private static int scan(ByteBuffer segment, Consumer<JournalRecord> consumer) {
+        CRC32C crc = new CRC32C();
+        int position = 0;
+        while (position + HEADER_BYTES <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segment.limit()) {
+                break;
+            }
+            int typeOrdinal = segment.get(position + 8);
+            crc.reset();
+            crc.update(segment.slice(position + 8, HEADER_BYTES - 8 + length));
+            if ((int) crc.getValue() != segment.getInt(position + 4) || typeOrdinal < 0 || typeOrdinal >= TYPES.length) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            segment.get(position + HEADER_BYTES, payload);
+            consumer.accept(new JournalRecord(segment.getLong(position + 9), segment.getLong(position + 17),
+                    TYPES[typeOrdinal], payload));
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private void open(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).toList());
+            // Zero-padded names sort in sequence order
+            segments.sort(null);
+            return segments;
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
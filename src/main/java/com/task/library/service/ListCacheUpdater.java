@@ -0,0 +1,118 @@
+package com.task.library.service;
+
+import com.task.library.dto.VersionedList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Applies single-row changes to a cached full-list entry instead of evicting it, so one
+ * write does not force the next reader to reload the whole table. Each entry carries the
+ * {@link CatalogVersion} it was read at; changes are applied after commit, atomically with
+ * the version bump, and a list loaded concurrently with a write is recognised by its
+ * version and reloaded rather than served.
+ */
+@Component
+public class ListCacheUpdater {
+
+    private static final int STALE_LOAD_RETRIES = 3;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    /**
+     * The cached list, loaded with the given query on a miss. A list whose version has
+     * moved on missed a write that committed while it was being read, and is replaced.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> VersionedList<T> get(String cacheName, Supplier<List<T>> query) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            for (int attempt = 0; attempt < STALE_LOAD_RETRIES; attempt++) {
+                VersionedList<T> list = cache.get(SimpleKey.EMPTY, () -> load(cacheName, query));
+                if (list != null && list.getVersion() == catalogVersion.current(cacheName)) {
+                    return list;
+                }
+                if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                    // Only this stale copy; a patched or reloaded list put since is kept
+                    ((ConcurrentMap<Object, Object>) caffeine.asMap()).remove(SimpleKey.EMPTY, list);
+                } else {
+                    cache.evictIfPresent(SimpleKey.EMPTY);
+                }
+            }
+        }
+        // Writes keep racing the load; answer this reader uncached
+        return load(cacheName, query);
+    }
+
+    public <T> void upsert(String cacheName, T entity, Function<T, Long> idOf) {
+        upsertAll(cacheName, List.of(entity), idOf);
+    }
+
+    /**
+     * Replaces the rows the list holds and appends the rest, as one change.
+     */
+    public <T> void upsertAll(String cacheName, List<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> byId = new LinkedHashMap<>();
+        entities.forEach(entity -> byId.put(idOf.apply(entity), entity));
+        catalogVersion.<T>changed(cacheName, list -> {
+            Map<Long, T> added = new LinkedHashMap<>(byId);
+            List<T> updated = new ArrayList<>(list.size() + added.size());
+            for (T existing : list) {
+                T replacement = added.remove(idOf.apply(existing));
+                updated.add(replacement != null ? replacement : existing);
+            }
+            updated.addAll(added.values());
+            return updated;
+        });
+    }
+
+    /**
+     * Replaces a row with a copy read in an earlier transaction. A row the list already holds
+     * at a newer version is kept, and a row it does not hold is not added.
+     */
+    public <T> void refresh(String cacheName, T entity, Function<T, Long> idOf, Function<T, Long> versionOf) {
+        Long id = idOf.apply(entity);
+        catalogVersion.<T>changed(cacheName, list -> {
+            List<T> updated = new ArrayList<>(list.size());
+            for (T existing : list) {
+                boolean newer = Objects.equals(idOf.apply(existing), id)
+                        && isNewer(versionOf.apply(entity), versionOf.apply(existing));
+                updated.add(newer ? entity : existing);
+            }
+            return updated;
+        });
+    }
+
+    static boolean isNewer(Long incoming, Long cached) {
+        return incoming != null && (cached == null || incoming > cached);
+    }
+
+    public <T> void remove(String cacheName, Long id, Function<T, Long> idOf) {
+        catalogVersion.<T>changed(cacheName, list -> {
+            List<T> updated = new ArrayList<>(list);
+            updated.removeIf(existing -> Objects.equals(idOf.apply(existing), id));
+            return updated;
+        });
+    }
+
+    // The version is read first, so a write committing during the query can only make the rows newer than it
+    private <T> VersionedList<T> load(String cacheName, Supplier<List<T>> query) {
+        long version = catalogVersion.current(cacheName);
+        return new VersionedList<>(version, query.get());
+    }
+}
@@ -0,0 +1,126 @@
+package com.task.library.service;
+
+/**
+ * Open-addressing hash map from long keys to long values with linear probing, so a
+ * lookup neither boxes nor allocates. Keys and values share one interleaved array,
+ * which keeps a probe within a cache line or two. Key 0 marks an empty slot and
+ * cannot be stored. Not thread-safe.
+ */
+public final class LongLongHashMap {
+
+    public static final long NO_VALUE = -1L;
+
+    private static final int MAX_LOAD_PERCENT = 60;
+
+    // key at 2 * slot, value at 2 * slot + 1
+    private long[] table;
+
+    private int size;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 100 / MAX_LOAD_PERCENT) - 1) << 1;
+        table = new long[2 * capacity];
+    }
+
+    /**
+     * @return the value mapped to the key, or {@link #NO_VALUE}
+     */
+    public long get(long key) {
+        long[] slots = table;
+        int mask = slots.length / 2 - 1;
+        int slot = mix(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long existing = slots[2 * slot];
+            if (existing == key) {
+                return slots[2 * slot + 1];
+            }
+            if (existing == 0) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * @return the value previously mapped to the key, or {@link #NO_VALUE}
+     */
+    public long put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("key 0 is reserved for empty slots");
+        }
+        if ((size + 1) * 100L > (table.length / 2) * (long) MAX_LOAD_PERCENT) {
+            resize();
+        }
+        int mask = table.length / 2 - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            long existing = table[2 * slot];
+            if (existing == key) {
+                long previous = table[2 * slot + 1];
+                table[2 * slot + 1] = value;
+                return previous;
+            }
+            if (existing == 0) {
+                table[2 * slot] = key;
+                table[2 * slot + 1] = value;
+                size++;
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes the key, shifting later entries of its probe run back so no tombstones are left.
+     *
+     * @return the value that was mapped to the key, or {@link #NO_VALUE}
+     */
+    public long remove(long key) {
+        int mask = table.length / 2 - 1;
+        int slot = mix(key) & mask;
+        while (table[2 * slot] != key) {
+            if (table[2 * slot] == 0) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long previous = table[2 * slot + 1];
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[2 * next] != 0) {
+            int home = mix(table[2 * next]) & mask;
+            // Move the entry into the gap unless its home slot lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[2 * gap] = table[2 * next];
+                table[2 * gap + 1] = table[2 * next + 1];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[2 * gap] = 0;
+        table[2 * gap + 1] = 0;
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        size = 0;
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0) {
+                put(old[i], old[i + 1]);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
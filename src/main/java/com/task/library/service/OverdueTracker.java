@@ -0,0 +1,235 @@
+package com.task.library.service;
+
+import com.task.library.dto.DueLoan;
+import com.task.library.repository.BorrowingRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Holds every active loan in memory by due date, so overdue loans are found without
+ * scanning the loan table. Due dates are whole days, so the wheel has one slot per day
+ * for the next {@link #WHEEL_DAYS} days; loans due further out wait in an overflow map
+ * and drop into the wheel as their day comes into range. Each tick drains only the
+ * slots of the days that have passed and emits those loans as newly overdue.
+ * <p>
+ * Overdue loans are published as an immutable snapshot, so reading them takes no lock
+ * and costs nothing per loan. The wheel is loaded before the application starts serving
+ * requests and kept in sync by BorrowingService after its transactions commit.
+ */
+@Component
+public class OverdueTracker implements SmartInitializingSingleton {
+
+    static final int WHEEL_DAYS = 64;
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @SuppressWarnings("unchecked")
+    private final Map<Long, DueLoan>[] wheel = new Map[WHEEL_DAYS];
+
+    private final TreeMap<Long, Map<Long, DueLoan>> overflow = new TreeMap<>();
+
+    // Loans not yet overdue, by loan id, to find their slot on return
+    private final Map<Long, DueLoan> pending = new HashMap<>();
+
+    private final Map<Long, DueLoan> overdue = new LinkedHashMap<>();
+
+    // First day whose slot has not been drained yet; loans due before it are overdue
+    private long currentDay;
+
+    private volatile List<DueLoan> overdueSnapshot = List.of();
+
+    public OverdueTracker() {
+        this(LocalDate.now());
+    }
+
+    OverdueTracker(LocalDate today) {
+        currentDay = today.toEpochDay();
+        for (int i = 0; i < WHEEL_DAYS; i++) {
+            wheel[i] = new HashMap<>();
+        }
+    }
+
+    public List<DueLoan> getOverdueLoans() {
+        return overdueSnapshot;
+    }
+
+    public void track(DueLoan loan) {
+        AfterCommit.run(() -> add(loan));
+    }
+
+    public void untrack(Long loanId) {
+        AfterCommit.run(() -> remove(loanId));
+    }
+
+    @Scheduled(fixedDelayString = "${library.loans.overdue-tick:PT1M}")
+    public void tick() {
+        tick(LocalDate.now());
+    }
+
+    /**
+     * Drains the slots of every day before {@code today} and logs each loan that became
+     * overdue.
+     *
+     * @return the loans that became overdue in this tick
+     */
+    List<DueLoan> tick(LocalDate today) {
+        List<DueLoan> newlyOverdue = drainUntil(today.toEpochDay());
+        newlyOverdue.forEach(loan -> logger.info("Loan {} of book {} by patron {} is overdue, due {}",
+                loan.getId(), loan.getBookId(), loan.getPatronId(), loan.getDueDate()));
+        return newlyOverdue;
+    }
+
+    public synchronized int size() {
+        return pending.size() + overdue.size();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * Drops every tracked loan and loads the active loans from the repository again, e.g.
+     * after the loans were replayed from the journal.
+     */
+    public void reload() {
+        clear();
+        long after = 0L;
+        int skipped = 0;
+        List<DueLoan> page;
+        do {
+            page = borrowingRecordRepository.findDueLoansAfter(after, Limit.of(LOAD_PAGE_SIZE));
+            skipped += addAll(page);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        logger.info("Overdue tracker loaded {} active loans, {} overdue, skipped {} without a due date",
+                size(), overdueSnapshot.size(), skipped);
+    }
+
+    private synchronized void clear() {
+        for (Map<Long, DueLoan> slot : wheel) {
+            slot.clear();
+        }
+        overflow.clear();
+        pending.clear();
+        overdue.clear();
+        publish();
+    }
+
+    private synchronized List<DueLoan> drainUntil(long day) {
+        List<DueLoan> newlyOverdue = new ArrayList<>();
+        while (currentDay < day) {
+            Map<Long, DueLoan> slot = wheel[slot(currentDay)];
+            for (DueLoan loan : slot.values()) {
+                pending.remove(loan.getId());
+                overdue.put(loan.getId(), loan);
+                newlyOverdue.add(loan);
+            }
+            slot.clear();
+            currentDay++;
+            Map<Long, DueLoan> entering = overflow.remove(currentDay + WHEEL_DAYS - 1);
+            if (entering != null) {
+                wheel[slot(currentDay + WHEEL_DAYS - 1)].putAll(entering);
+            }
+        }
+        if (!newlyOverdue.isEmpty()) {
+            publish();
+        }
+        return newlyOverdue;
+    }
+
+    private synchronized void add(DueLoan loan) {
+        if (place(loan)) {
+            publish();
+        }
+    }
+
+    /**
+     * Adds a page of loans, publishing the overdue snapshot at most once.
+     *
+     * @return the number of loans skipped for having no due date
+     */
+    private synchronized int addAll(List<DueLoan> loans) {
+        int skipped = 0;
+        boolean anyOverdue = false;
+        for (DueLoan loan : loans) {
+            if (loan.getDueDate() == null) {
+                skipped++;
+            } else {
+                anyOverdue |= place(loan);
+            }
+        }
+        if (anyOverdue) {
+            publish();
+        }
+        return skipped;
+    }
+
+    /**
+     * @return whether the loan is already overdue
+     */
+    private boolean place(DueLoan loan) {
+        remove(loan.getId());
+        long dueDay = loan.getDueDate().toEpochDay();
+        if (dueDay < currentDay) {
+            overdue.put(loan.getId(), loan);
+            return true;
+        }
+        pending.put(loan.getId(), loan);
+        if (dueDay < currentDay + WHEEL_DAYS) {
+            wheel[slot(dueDay)].put(loan.getId(), loan);
+        } else {
+            overflow.computeIfAbsent(dueDay, key -> new HashMap<>()).put(loan.getId(), loan);
+        }
+        return false;
+    }
+
+    private synchronized void remove(Long loanId) {
+        if (overdue.remove(loanId) != null) {
+            publish();
+            return;
+        }
+        DueLoan loan = pending.remove(loanId);
+        if (loan == null) {
+            return;
+        }
+        long dueDay = loan.getDueDate().toEpochDay();
+        if (dueDay < currentDay + WHEEL_DAYS) {
+            wheel[slot(dueDay)].remove(loanId);
+        } else {
+            Map<Long, DueLoan> loans = overflow.get(dueDay);
+            loans.remove(loanId);
+            if (loans.isEmpty()) {
+                overflow.remove(dueDay);
+            }
+        }
+    }
+
+    private void publish() {
+        overdueSnapshot = List.copyOf(overdue.values());
+    }
+
+    private static int slot(long epochDay) {
+        return (int) (epochDay & (WHEEL_DAYS - 1));
+    }
+}
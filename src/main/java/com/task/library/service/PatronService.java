@@ -1,54 +1,162 @@
 package com.task.library.service;
 
+import com.task.library.dto.BorrowingRecordSummary;
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.PatronDto;
+import com.task.library.dto.PatronLoan;
+import com.task.library.dto.VersionedList;
 import com.task.library.entity.Patron;
+import com.task.library.exception.BadRequestException;
 import com.task.library.exception.ResourceNotFoundException;
+import com.task.library.repository.BorrowingRecordRepository;
 import com.task.library.repository.PatronRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class PatronService {
 
+    // Bounds used when a loan history request leaves out from or to
+    private static final LocalDate EARLIEST_BORROW_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate LATEST_BORROW_DATE = LocalDate.of(9999, 12, 31);
+
     @Autowired
     private PatronRepository patronRepository;
 
-    @Cacheable("patrons")
-    public List<Patron> getAllPatrons() {
-        return patronRepository.findAll();
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ListCacheUpdater listCacheUpdater;
+
+    @Autowired
+    private Journal journal;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public VersionedList<PatronDto> getAllPatrons() {
+        return listCacheUpdater.get("patronList", patronRepository::findAllDtos);
     }
 
-    @Cacheable(value = "patrons", key = "#id")
-    public Patron getPatronById(Long id) {
-        return patronRepository.findById(id)
+    public CursorPage<PatronDto> getPatronsPage(String after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<PatronDto> rows = patronRepository.findDtosAfter(CursorPage.decodeCursor(after), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, PatronDto::getId);
+    }
+
+    /**
+     * Attaches each patron's loan history with IN queries on the listed ids, one per
+     * {@link CursorPage#MAX_LIMIT} ids, so a page costs one more query.
+     */
+    public List<PatronDto> withLoans(List<PatronDto> patrons) {
+        if (patrons.isEmpty()) {
+            return patrons;
+        }
+        // Only the listed rows' loans, a page of ids per query
+        List<Long> ids = patrons.stream().map(PatronDto::getId).toList();
+        List<BorrowingRecordSummary> loans = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CursorPage.MAX_LIMIT) {
+            loans.addAll(borrowingRecordRepository.findSummariesByPatronIds(ids.subList(from, Math.min(ids.size(), from + CursorPage.MAX_LIMIT))));
+        }
+        Map<Long, List<BorrowingRecordSummary>> loansByPatron = loans.stream()
+                .collect(Collectors.groupingBy(BorrowingRecordSummary::getPatronId));
+        return patrons.stream()
+                .map(patron -> patron.withLoans(loansByPatron.getOrDefault(patron.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * One page of a patron's loans, newest first, each with a summary of the book. Status
+     * {@code active} keeps unreturned loans, {@code returned} the rest; from and to bound
+     * the borrow date inclusively. The cursor wraps the last loan id of the page.
+     */
+    public CursorPage<PatronLoan> getLoans(Long patronId, String status, LocalDate from, LocalDate to,
+                                           String after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        long before = after == null || after.isEmpty() ? Long.MAX_VALUE : CursorPage.decodeCursor(after);
+        LocalDate fromDate = from == null ? EARLIEST_BORROW_DATE : from;
+        LocalDate toDate = to == null ? LATEST_BORROW_DATE : to;
+        if (fromDate.isAfter(toDate)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (!patronRepository.existsById(patronId)) {
+            throw new ResourceNotFoundException("Patron not found with id " + patronId);
+        }
+
+        Limit rows = Limit.of(pageSize + 1);
+        List<PatronLoan> loans = switch (status == null ? "" : status) {
+            case "" -> borrowingRecordRepository.findPatronLoans(patronId, fromDate, toDate, before, rows);
+            case "active" -> borrowingRecordRepository.findActivePatronLoans(patronId, fromDate, toDate, before, rows);
+            case "returned" -> borrowingRecordRepository.findReturnedPatronLoans(patronId, fromDate, toDate, before, rows);
+            default -> throw new BadRequestException("Unknown loan status " + status);
+        };
+        return CursorPage.of(loans, pageSize, PatronLoan::getId);
+    }
+
+    /**
+     * @return the version of the cached copy of a patron, or null when it is not cached
+     */
+    public Long findCachedVersion(Long id) {
+        Cache patrons = cacheManager.getCache("patrons");
+        PatronDto patron = patrons == null ? null : patrons.get(id, PatronDto.class);
+        return patron == null ? null : patron.getVersion();
+    }
+
+    @Cacheable(value = "patrons", key = "#id", sync = true)
+    public PatronDto getPatronById(Long id) {
+        return patronRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id " + id));
     }
 
     @Transactional
-    @CacheEvict(value = "patrons", allEntries = true)
-    public Patron createPatron(Patron patron) {
-        return patronRepository.save(patron);
+    @CachePut(value = "patrons", key = "#result.id")
+    public PatronDto createPatron(Patron patron) {
+        PatronDto savedPatron = PatronDto.of(patronRepository.save(patron));
+        listCacheUpdater.upsert("patronList", savedPatron, PatronDto::getId);
+        journal.append(JournalRecord.Type.PATRON_SAVED, () -> savedPatron);
+        return savedPatron;
     }
 
     @Transactional
-    @CacheEvict(value = "patrons", allEntries = true)
-    public Patron updatePatron(Long id, Patron patronDetails) {
-        Patron patron = getPatronById(id);
+    @CachePut(value = "patrons", key = "#id")
+    public PatronDto updatePatron(Long id, Patron patronDetails) {
+        Patron patron = findPatron(id);
 
         patron.setName(patronDetails.getName());
         patron.setContactInformation(patronDetails.getContactInformation());
 
-        return patronRepository.save(patron);
+        // Flushed so the version is incremented before the DTO is built
+        PatronDto savedPatron = PatronDto.of(patronRepository.saveAndFlush(patron));
+        listCacheUpdater.upsert("patronList", savedPatron, PatronDto::getId);
+        journal.append(JournalRecord.Type.PATRON_SAVED, () -> savedPatron);
+        return savedPatron;
     }
 
     @Transactional
-    @CacheEvict(value = "patrons", allEntries = true)
+    @CacheEvict(value = "patrons", key = "#id")
     public void deletePatron(Long id) {
-        Patron patron = getPatronById(id);
+        Patron patron = findPatron(id);
         patronRepository.delete(patron);
+        listCacheUpdater.remove("patronList", id, PatronDto::getId);
+        journal.append(JournalRecord.Type.PATRON_DELETED, () -> id);
+    }
+
+    private Patron findPatron(Long id) {
+        return patronRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id " + id));
     }
 }
@@ -0,0 +1,129 @@
+package com.task.library.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.task.library.dto.AuditFinding;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.BorrowingRecordSummary;
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.PatronDto;
+import com.task.library.dto.PatronLoan;
+import com.task.library.dto.RankedCount;
+import com.task.library.repository.BookRepository;
+import com.task.library.repository.BorrowingRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The reports behind background jobs, written as newline-delimited JSON. Each reports
+ * progress per row, so a cancelled job stops within one row. The loan history streams
+ * through one cursor; the others read page by page and hold a connection only per page.
+ */
+@Service
+public class ReportService {
+
+    private static final int AUDIT_PAGE_SIZE = 1000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private PatronService patronService;
+
+    private final ObjectWriter writer;
+
+    @Autowired
+    public ReportService(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void writeLoanHistory(OutputStream out, JobProgress progress) throws IOException {
+        progress.total(borrowingRecordRepository.count());
+        try (JsonGenerator generator = open(out);
+             Stream<BorrowingRecordSummary> records = borrowingRecordRepository.streamAllSummaries()) {
+            Iterator<BorrowingRecordSummary> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                write(generator, iterator.next(), progress);
+            }
+        }
+    }
+
+    public void writePatronStatement(Long patronId, OutputStream out, JobProgress progress) throws IOException {
+        // Fails with 404 before anything is written when the patron does not exist
+        PatronDto patron = patronService.getPatronById(patronId);
+        progress.total(1 + borrowingRecordRepository.countByPatronId(patronId));
+        try (JsonGenerator generator = open(out)) {
+            write(generator, patron, progress);
+            String after = null;
+            do {
+                CursorPage<PatronLoan> page = patronService.getLoans(patronId, null, null, null, after, CursorPage.MAX_LIMIT);
+                for (PatronLoan loan : page.getItems()) {
+                    write(generator, loan, progress);
+                }
+                after = page.getNextCursor();
+            } while (after != null);
+        }
+    }
+
+    /**
+     * Writes a finding for every book whose available copies are not its total copies less
+     * its open loans. Loans are counted per page right after the page is read, so a checkout
+     * landing in between can show up as a finding that is gone on the next run.
+     */
+    public void writeCatalogAudit(OutputStream out, JobProgress progress) throws IOException {
+        progress.total(bookRepository.count());
+        try (JsonGenerator generator = open(out)) {
+            long after = 0;
+            List<BookDto> books;
+            do {
+                books = bookRepository.findDtosAfter(after, Limit.of(AUDIT_PAGE_SIZE));
+                if (books.isEmpty()) {
+                    break;
+                }
+                Map<Long, Long> activeLoans = borrowingRecordRepository
+                        .countActiveLoansByBookIds(books.stream().map(BookDto::getId).toList()).stream()
+                        .collect(Collectors.toMap(RankedCount::getId, RankedCount::getCount));
+                for (BookDto book : books) {
+                    long active = activeLoans.getOrDefault(book.getId(), 0L);
+                    int expected = (int) (book.getCopiesTotal() - active);
+                    if (book.getCopiesAvailable() != expected) {
+                        writer.writeValue(generator, new AuditFinding(book.getId(), book.getTitle(), book.getCopiesTotal(),
+                                book.getCopiesAvailable(), active, expected));
+                        generator.writeRaw('\n');
+                    }
+                    progress.advance();
+                }
+                after = books.get(books.size() - 1).getId();
+            } while (books.size() == AUDIT_PAGE_SIZE);
+        }
+    }
+
+    private JsonGenerator open(OutputStream out) throws IOException {
+        JsonGenerator generator = writer.createGenerator(out);
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private void write(JsonGenerator generator, Object row, JobProgress progress) throws IOException {
+        writer.writeValue(generator, row);
+        generator.writeRaw('\n');
+        progress.advance();
+    }
+}
@@ -0,0 +1,47 @@
+package com.task.library.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks indexed by a hash of the key, so callers working on the same
+ * key queue up in memory while unrelated keys rarely contend.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+
+    private final int mask;
+
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock forKey(long key) {
+        return locks[stripe(key)];
+    }
+
+    /**
+     * Locks for several keys, deduplicated and in stripe order. Acquiring them in the
+     * returned order avoids deadlocks between callers with overlapping key sets.
+     */
+    public List<ReentrantLock> forKeys(Collection<Long> keys) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long key : keys) {
+            stripes.add(stripe(key));
+        }
+        return stripes.stream().map(stripe -> locks[stripe]).toList();
+    }
+
+    private int stripe(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
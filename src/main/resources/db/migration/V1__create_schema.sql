@@ -0,0 +1,35 @@
+-- Baseline: the schema previously generated by Hibernate at startup
+
+create sequence book_seq start with 1 increment by 50;
+
+create sequence borrowing_record_seq start with 1 increment by 50;
+
+create table book (
+    id bigint not null,
+    title varchar(255) not null,
+    author varchar(255) not null,
+    publication_year integer not null,
+    isbn varchar(255) not null,
+    copies_total integer not null check (copies_total >= 1),
+    copies_available integer not null,
+    version bigint not null,
+    primary key (id)
+);
+
+create table patron (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    contact_information varchar(255) not null,
+    primary key (id)
+);
+
+create table borrowing_record (
+    id bigint not null,
+    book_id bigint,
+    patron_id bigint,
+    borrow_date date,
+    return_date date,
+    primary key (id),
+    constraint fk_borrowing_record_book foreign key (book_id) references book (id),
+    constraint fk_borrowing_record_patron foreign key (patron_id) references patron (id)
+);
@@ -0,0 +1,7 @@
+-- Serves "is this book out to this patron" lookups (returnBook, borrowBook, batch circulation)
+-- as an index seek however much loan history accumulates. return_date is last so the
+-- active loan (return_date is null) is found within the (book, patron) range.
+create index idx_borrowing_record_book_patron_return on borrowing_record (book_id, patron_id, return_date);
+
+-- Serves per-patron active loan queries (batch circulation, patron loan listings)
+create index idx_borrowing_record_patron_return on borrowing_record (patron_id, return_date);
@@ -0,0 +1,3 @@
+-- ISBN lookups resolve to exactly one book; BookService stores the normalized ISBN-13
+
+alter table book add constraint uk_book_isbn unique (isbn);
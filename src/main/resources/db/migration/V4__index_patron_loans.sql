@@ -0,0 +1,3 @@
+-- Patron loan history is read newest first with a keyset on id
+
+create index idx_borrowing_record_patron_id on borrowing_record (patron_id, id);
@@ -0,0 +1,8 @@
+-- Loans carry the day they are due back; existing loans get the default 14-day period
+
+alter table borrowing_record add column due_date date;
+
+update borrowing_record set due_date = dateadd(day, 14, borrow_date) where borrow_date is not null;
+
+-- The overdue tracker loads only the active loans at startup
+create index idx_borrowing_record_return_id on borrowing_record (return_date, id);
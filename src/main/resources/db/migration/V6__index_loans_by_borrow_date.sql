@@ -0,0 +1,3 @@
+-- Circulation statistics rebuild counts a year of checkouts by day, book and patron from the index alone
+
+create index idx_borrowing_record_borrow_date on borrowing_record (borrow_date, book_id, patron_id);
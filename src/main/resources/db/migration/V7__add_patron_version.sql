@@ -0,0 +1,3 @@
+-- Optimistic locking for patrons; the version also serves as the ETag of GET /api/patrons/{id}
+
+alter table patron add column version bigint default 0 not null;
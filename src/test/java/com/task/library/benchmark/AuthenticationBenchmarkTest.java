@@ -0,0 +1,94 @@
+package com.task.library.benchmark;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Throughput of authenticated requests through the full security filter chain,
+ * with and without the credential cache. Skipped by default; run with
+ * {@code mvn test -Dtest=AuthenticationBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AuthenticationBenchmarkTest {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final long WARMUP_MILLIS = 2_000;
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Nested
+    @SpringBootTest
+    @AutoConfigureMockMvc
+    @TestPropertySource(properties = "library.security.credential-cache.enabled=false")
+    class BcryptOnEveryRequest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Test
+        public void benchmark() throws Exception {
+            report("bcrypt per request", mockMvc);
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @AutoConfigureMockMvc
+    @TestPropertySource(properties = "library.security.credential-cache.enabled=true")
+    class CachedCredentials {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Test
+        public void benchmark() throws Exception {
+            report("cached credentials", mockMvc);
+        }
+    }
+
+    private static void report(String mode, MockMvc mockMvc) throws Exception {
+        run(mockMvc, WARMUP_MILLIS);
+        long requests = run(mockMvc, MEASURE_MILLIS);
+        System.out.printf("%-20s threads=%d requests=%d throughput=%.1f req/s%n",
+                mode, THREADS, requests, requests * 1000.0 / MEASURE_MILLIS);
+    }
+
+    private static long run(MockMvc mockMvc, long durationMillis) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Future<Long>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            workers.add(executor.submit(() -> {
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    mockMvc.perform(get("/api/cache/stats").with(httpBasic("admin", "123456")))
+                            .andExpect(status().isOk());
+                    count++;
+                }
+                return count;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> worker : workers) {
+            total += worker.get();
+        }
+        executor.shutdown();
+        return total;
+    }
+}
@@ -0,0 +1,157 @@
+package com.task.library.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.task.library.entity.Book;
+import com.task.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requests the book list over HTTP in each negotiated encoding, with and without gzip, and a
+ * single book too small to be worth compressing.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class BinaryFormatConfigTest {
+
+    private static final int BOOKS = 200;
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("admin:123456".getBytes(StandardCharsets.UTF_8));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setUp() {
+        if (bookRepository.count() >= BOOKS) {
+            return;
+        }
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("Encoded " + i);
+            book.setAuthor("Author " + i);
+            book.setPublicationYear(2000 + i % 20);
+            book.setIsbn(String.format("979%010d", i));
+            book.setCopiesTotal(1);
+            book.setCopiesAvailable(1);
+            books.add(book);
+        }
+        bookRepository.saveAll(books);
+    }
+
+    /** Test for GET /api/books as JSON, CBOR and Smile: same content, distinct ETags */
+    @Test
+    public void testNegotiatedFormats() throws Exception {
+        HttpResponse<byte[]> json = get("application/json", null, null);
+        HttpResponse<byte[]> cbor = get("application/cbor", null, null);
+        HttpResponse<byte[]> smile = get("application/x-jackson-smile", null, null);
+
+        assertEquals("application/cbor", cbor.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("application/x-jackson-smile", smile.headers().firstValue("Content-Type").orElseThrow());
+        JsonNode expected = new ObjectMapper().readTree(json.body());
+        assertEquals(expected, new ObjectMapper(new CBORFactory()).readTree(cbor.body()));
+        assertEquals(expected, new ObjectMapper(new SmileFactory()).readTree(smile.body()));
+        assertTrue(cbor.body().length < json.body().length);
+        assertTrue(smile.body().length < json.body().length);
+
+        String jsonTag = json.headers().firstValue("ETag").orElseThrow();
+        String cborTag = cbor.headers().firstValue("ETag").orElseThrow();
+        assertTrue(cborTag.endsWith("-cbor\""));
+        assertNotEquals(jsonTag, smile.headers().firstValue("ETag").orElseThrow());
+        assertEquals(304, get("application/cbor", null, cborTag).statusCode());
+        assertEquals(200, get("application/cbor", null, jsonTag).statusCode());
+        assertEquals(jsonTag, get("*/*", null, null).headers().firstValue("ETag").orElseThrow());
+    }
+
+    /** Test for GET /api/books gzipped by the strong-ETag filter when the client accepts gzip */
+    @Test
+    public void testGzip() throws Exception {
+        HttpResponse<byte[]> plain = get("application/cbor", null, null);
+        HttpResponse<byte[]> gzipped = get("application/cbor", "gzip", null);
+
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElseThrow());
+        assertTrue(gzipped.body().length < plain.body().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            assertArrayEquals(plain.body(), in.readAllBytes());
+        }
+
+        // The gzipped body is its own representation with its own tag, and revalidates against it
+        String plainTag = plain.headers().firstValue("ETag").orElseThrow();
+        String gzipTag = gzipped.headers().firstValue("ETag").orElseThrow();
+        assertEquals(plainTag.replace("\"", "") + "-gzip", gzipTag.replace("\"", ""));
+        HttpResponse<byte[]> revalidated = get("application/cbor", "gzip", gzipTag);
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(gzipTag, revalidated.headers().firstValue("ETag").orElseThrow());
+        assertEquals(0, revalidated.body().length);
+        assertEquals(200, get("application/cbor", "gzip;q=0", null).statusCode());
+        assertTrue(get("application/cbor", "gzip;q=0", null).headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    /** Test for GET /api/books/{id} below the minimum response size: sent plain under the plain tag */
+    @Test
+    public void testGzip_BelowMinimumSize() throws Exception {
+        String path = "/api/books/" + bookRepository.findAll().get(0).getId();
+        HttpResponse<byte[]> small = get("application/json", "gzip", null, path);
+
+        assertTrue(small.body().length < 2048);
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty());
+        String tag = small.headers().firstValue("ETag").orElseThrow();
+        assertFalse(tag.contains("-gzip"), tag);
+        new ObjectMapper().readTree(small.body());
+
+        HttpResponse<byte[]> revalidated = get("application/json", "gzip", tag, path);
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(tag, revalidated.headers().firstValue("ETag").orElseThrow());
+    }
+
+    /** Test for GET /api/books?include=loans, untagged and so compressed by the connector */
+    @Test
+    public void testGzip_Untagged() throws Exception {
+        HttpResponse<byte[]> gzipped = get("application/json", "gzip", null, "/api/books?include=loans");
+
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElseThrow());
+        assertTrue(gzipped.headers().firstValue("ETag").isEmpty());
+    }
+
+    private HttpResponse<byte[]> get(String accept, String acceptEncoding, String ifNoneMatch) throws Exception {
+        return get(accept, acceptEncoding, ifNoneMatch, "/api/books");
+    }
+
+    private HttpResponse<byte[]> get(String accept, String acceptEncoding, String ifNoneMatch, String path) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", AUTHORIZATION)
+                .header("Accept", accept);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
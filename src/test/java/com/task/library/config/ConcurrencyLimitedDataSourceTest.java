@@ -0,0 +1,52 @@
+package com.task.library.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class ConcurrencyLimitedDataSourceTest {
+
+    /** Test for connections beyond the limit waiting and timing out until one is closed */
+    @Test
+    public void testLimitsConnectionHolders() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 2, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(2, dataSource.getActive());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        // Closing twice must not hand out a second permit
+        first.close();
+        assertEquals(1, dataSource.getActive());
+        Connection third = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        second.close();
+        third.close();
+        assertEquals(0, dataSource.getActive());
+        verify(target, times(3)).getConnection();
+    }
+
+    /** Test for the permit being returned when the pool itself fails */
+    @Test
+    public void testReleasesPermitOnPoolFailure() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(0, dataSource.getActive());
+    }
+}
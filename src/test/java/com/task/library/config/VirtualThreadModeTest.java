@@ -0,0 +1,63 @@
+package com.task.library.config;
+
+import com.task.library.entity.Book;
+import com.task.library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the application with virtual threads enabled: cached reads load outside the cache's
+ * own lock and errors raised while loading still map to their status codes.
+ */
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@AutoConfigureMockMvc
+@WithMockUser(username = "admin", roles = "ADMIN")
+public class VirtualThreadModeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /** Test for GET /api/books/{id} through the striped-loading cache, hit and miss */
+    @Test
+    public void testCachedReads() throws Exception {
+        Book book = new Book();
+        book.setTitle("Virtual Threads");
+        book.setAuthor("Author");
+        book.setPublicationYear(2023);
+        book.setIsbn("9780201633610");
+        Long id = bookRepository.save(book).getId();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/books/" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.title").value("Virtual Threads"));
+        }
+        mockMvc.perform(get("/api/books/" + (id + 1000)))
+                .andExpect(status().isNotFound());
+    }
+
+    /** Test for the data source capping connection holders at the pool size */
+    @Test
+    public void testDataSourceLimit() {
+        ConcurrencyLimitedDataSource limited = assertInstanceOf(ConcurrencyLimitedDataSource.class, dataSource);
+        assertEquals(10, limited.getMaxConcurrency());
+    }
+}
@@ -0,0 +1,51 @@
+package com.task.library.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    /** Test for a virtual thread sleeping inside synchronized being reported as pinned */
+    @Test
+    public void testReportsPinnedVirtualThread() throws Exception {
+        VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(new SimpleMeterRegistry(), true, Duration.ofMillis(10));
+        pinningMonitor.start();
+        try {
+            Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+            long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+            while (pinningMonitor.getPinnedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(pinningMonitor.getPinnedCount() > 0);
+        } finally {
+            pinningMonitor.stop();
+        }
+    }
+
+    /** Test for the monitor staying off when disabled */
+    @Test
+    public void testDisabled() throws Exception {
+        VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(new SimpleMeterRegistry(), false, Duration.ofMillis(10));
+        pinningMonitor.start();
+        Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+        pinningMonitor.stop();
+        assertEquals(0, pinningMonitor.getPinnedCount());
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -2,28 +2,40 @@ package com.task.library.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.task.library.config.SecurityConfig;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.BookSearchHit;
+import com.task.library.dto.BorrowingRecordSummary;
+import com.task.library.dto.BulkImportResult;
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.VersionedList;
 import com.task.library.entity.Book;
+import com.task.library.exception.BadRequestException;
 import com.task.library.exception.ResourceNotFoundException;
+import com.task.library.service.BookImportService;
 import com.task.library.service.BookService;
+import com.task.library.service.CatalogVersion;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * Test class for BookController
@@ -39,6 +51,12 @@ public class BookControllerTest {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private CatalogVersion catalogVersion;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -51,7 +69,7 @@ public class BookControllerTest {
         Book book1 = new Book(1L, "Book One", "Author One", 2020, "ISBN1", null);
         Book book2 = new Book(2L, "Book Two", "Author Two", 2021, "ISBN2", null);
 
-        when(bookService.getAllBooks()).thenReturn(Arrays.asList(book1, book2));
+        when(bookService.getAllBooks()).thenReturn(new VersionedList<>(1L, Arrays.asList(BookDto.of(book1), BookDto.of(book2))));
 
         mockMvc.perform(get("/api/books")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -59,9 +77,97 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$[0].id").value(book1.getId()))
                 .andExpect(jsonPath("$[0].title").value(book1.getTitle()))
                 .andExpect(jsonPath("$[1].id").value(book2.getId()))
-                .andExpect(jsonPath("$[1].title").value(book2.getTitle()));
+                .andExpect(jsonPath("$[1].title").value(book2.getTitle()))
+                .andExpect(jsonPath("$[0].loans").doesNotExist());
 
         verify(bookService, times(1)).getAllBooks();
+        verify(bookService, times(0)).withLoans(any());
+    }
+
+    /**
+     * Test for GET /api/books?after=&limit=
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetBooksPage() throws Exception {
+        Book book1 = new Book(1L, "Book One", "Author One", 2020, "ISBN1", null);
+        Book book2 = new Book(2L, "Book Two", "Author Two", 2021, "ISBN2", null);
+        String nextCursor = CursorPage.encodeCursor(book2.getId());
+
+        when(bookService.getBooksPage(null, 2)).thenReturn(new CursorPage<>(Arrays.asList(BookDto.of(book1), BookDto.of(book2)), nextCursor));
+
+        mockMvc.perform(get("/api/books")
+                        .param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(book1.getId()))
+                .andExpect(jsonPath("$.items[1].id").value(book2.getId()))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+
+        verify(bookService, times(1)).getBooksPage(null, 2);
+        verify(bookService, times(0)).getAllBooks();
+    }
+
+    /**
+     * Test for GET /api/books/search?q=
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testSearchBooks() throws Exception {
+        BookSearchHit hit = new BookSearchHit(1L, "Book One", "Author One", 2020, 3.5f);
+        String nextCursor = CursorPage.encodeCursor(1);
+
+        when(bookService.searchBooks("book on", null, 1)).thenReturn(new CursorPage<>(Arrays.asList(hit), nextCursor));
+
+        mockMvc.perform(get("/api/books/search")
+                        .param("q", "book on")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(hit.getId()))
+                .andExpect(jsonPath("$.items[0].title").value(hit.getTitle()))
+                .andExpect(jsonPath("$.items[0].score").value(3.5))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+
+        verify(bookService, times(1)).searchBooks("book on", null, 1);
+        verify(bookService, times(0)).getBooksPage(any(), any());
+    }
+
+    /**
+     * Test for GET /api/books?include=loans
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetAllBooks_IncludeLoans() throws Exception {
+        BookDto book = BookDto.of(new Book(1L, "Book One", "Author One", 2020, "ISBN1", null));
+        BorrowingRecordSummary loan = new BorrowingRecordSummary(10L, 1L, 5L, LocalDate.of(2024, 1, 2), null);
+        List<BookDto> books = List.of(book);
+
+        when(bookService.getAllBooks()).thenReturn(new VersionedList<>(1L, books));
+        when(bookService.withLoans(books)).thenReturn(List.of(book.withLoans(List.of(loan))));
+
+        mockMvc.perform(get("/api/books")
+                        .param("include", "loans")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(book.getId()))
+                .andExpect(jsonPath("$[0].loans[0].id").value(loan.getId()))
+                .andExpect(jsonPath("$[0].loans[0].patronId").value(loan.getPatronId()));
+
+        verify(bookService, times(1)).withLoans(books);
+    }
+
+    /**
+     * Test for GET /api/books?include= with an unknown expansion
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetAllBooks_UnknownInclude() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .param("include", "patrons")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown include patrons"));
     }
 
     /**
@@ -73,7 +179,7 @@ public class BookControllerTest {
         Long bookId = 1L;
         Book book = new Book(bookId, "Book One", "Author One", 2020, "ISBN1", null);
 
-        when(bookService.getBookById(bookId)).thenReturn(book);
+        when(bookService.getBookById(bookId)).thenReturn(BookDto.of(book));
 
         mockMvc.perform(get("/api/books/{id}", bookId)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -84,6 +190,91 @@ public class BookControllerTest {
         verify(bookService, times(1)).getBookById(bookId);
     }
 
+    /**
+     * Test for GET /api/books/{id} - ETag from the cached version, 304 without fetching the book
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetBookById_NotModified() throws Exception {
+        Long bookId = 1L;
+        Book book = new Book(bookId, "Book One", "Author One", 2020, "ISBN1", null);
+        book.setVersion(3L);
+        when(catalogVersion.getEpoch()).thenReturn(36L);
+        when(bookService.findCachedVersion(bookId)).thenReturn(3L);
+        when(bookService.getBookById(bookId)).thenReturn(BookDto.of(book));
+
+        mockMvc.perform(get("/api/books/{id}", bookId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"10-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"10-3\""))
+                .andExpect(content().string(""));
+        verify(bookService, never()).getBookById(bookId);
+
+        mockMvc.perform(get("/api/books/{id}", bookId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"10-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"10-3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    /**
+     * Test for GET /api/books - 304 while the cached list's version is unchanged, tagged from the list rather than the counter
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetAllBooks_NotModified() throws Exception {
+        when(catalogVersion.getEpoch()).thenReturn(36L);
+        when(catalogVersion.books()).thenReturn(41L);
+        when(bookService.getAllBooks()).thenReturn(new VersionedList<>(40L, List.of()));
+
+        mockMvc.perform(get("/api/books")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"10-40\""))
+                .andExpect(status().isNotModified());
+
+        when(bookService.getAllBooks()).thenReturn(new VersionedList<>(41L, List.of()));
+        mockMvc.perform(get("/api/books")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"10-40\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"10-41\""));
+    }
+
+    /**
+     * Test for GET /api/books/isbn/{isbn}
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetBookByIsbn() throws Exception {
+        Book book = new Book(1L, "Book One", "Author One", 2020, "9780306406157", null);
+
+        when(bookService.findBookIdByIsbn("0-306-40615-2")).thenReturn(1L);
+        when(bookService.getBookById(1L)).thenReturn(BookDto.of(book));
+
+        mockMvc.perform(get("/api/books/isbn/{isbn}", "0-306-40615-2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(book.getId()))
+                .andExpect(jsonPath("$.isbn").value(book.getIsbn()));
+
+        verify(bookService, times(1)).findBookIdByIsbn("0-306-40615-2");
+    }
+
+    /**
+     * Test for GET /api/books/isbn/{isbn} - Invalid checksum
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetBookByIsbn_Invalid() throws Exception {
+        when(bookService.findBookIdByIsbn("9780306406158"))
+                .thenThrow(new BadRequestException("Invalid ISBN 9780306406158"));
+
+        mockMvc.perform(get("/api/books/isbn/{isbn}", "9780306406158")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid ISBN 9780306406158"));
+
+        verify(bookService, times(0)).getBookById(any());
+    }
+
     /**
      * Test for GET /api/books/{id} - Not Found
      */
@@ -112,7 +303,7 @@ public class BookControllerTest {
         Book book = new Book(null, "New Book", "New Author", 2021, "ISBN123", null);
         Book savedBook = new Book(1L, "New Book", "New Author", 2021, "ISBN123", null);
 
-        when(bookService.createBook(any(Book.class))).thenReturn(savedBook);
+        when(bookService.createBook(any(Book.class))).thenReturn(BookDto.of(savedBook));
 
         mockMvc.perform(post("/api/books")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -134,7 +325,7 @@ public class BookControllerTest {
         Book bookDetails = new Book(null, "Updated Title", "Updated Author", 2022, "ISBN999", null);
         Book updatedBook = new Book(bookId, "Updated Title", "Updated Author", 2022, "ISBN999", null);
 
-        when(bookService.updateBook(eq(bookId), any(Book.class))).thenReturn(updatedBook);
+        when(bookService.updateBook(eq(bookId), any(Book.class))).thenReturn(BookDto.of(updatedBook));
 
         mockMvc.perform(put("/api/books/{id}", bookId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -181,4 +372,33 @@ public class BookControllerTest {
 
         verify(bookService, times(0)).createBook(any(Book.class));
     }
+
+    /**
+     * Test for POST /api/books/bulk
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testImportBooks() throws Exception {
+        String body = "{\"title\":\"Book One\",\"author\":\"Author One\",\"publicationYear\":2020,\"isbn\":\"ISBN1\"}\n"
+                + "{\"title\":\"\",\"author\":\"Author Two\",\"publicationYear\":2021,\"isbn\":\"ISBN2\"}\n";
+        BulkImportResult result = new BulkImportResult(10);
+        result.recordReceived();
+        result.recordReceived();
+        result.recordImported(1);
+        result.recordFailure(2, "title must not be blank");
+
+        when(bookImportService.importBooks(any(InputStream.class), argThat(MediaType.APPLICATION_NDJSON::isCompatibleWith))).thenReturn(result);
+
+        mockMvc.perform(post("/api/books/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].error").value("title must not be blank"));
+
+        verify(bookImportService, times(1)).importBooks(any(InputStream.class), argThat(MediaType.APPLICATION_NDJSON::isCompatibleWith));
+    }
 }
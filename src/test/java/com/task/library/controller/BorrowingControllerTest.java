@@ -2,9 +2,14 @@ package com.task.library.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.task.library.config.SecurityConfig;
+import com.task.library.dto.BatchCirculationRequest;
+import com.task.library.dto.BatchCirculationResult;
+import com.task.library.dto.DueLoan;
 import com.task.library.entity.Book;
 import com.task.library.entity.BorrowingRecord;
 import com.task.library.entity.Patron;
+import com.task.library.exception.BadRequestException;
+import com.task.library.exception.ConflictException;
 import com.task.library.exception.ResourceNotFoundException;
 import com.task.library.service.BorrowingService;
 import org.junit.jupiter.api.Test;
@@ -19,8 +24,12 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -127,4 +136,107 @@ public class BorrowingControllerTest {
 
         verify(borrowingService, times(1)).borrowBook(bookId, patronId);
     }
+
+    /**
+     * Test for POST /api/borrow/{bookId}/patron/{patronId} - No Copies Available
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testBorrowBook_NoCopiesAvailable() throws Exception {
+        Long bookId = 1L;
+        Long patronId = 2L;
+
+        when(borrowingService.borrowBook(bookId, patronId))
+                .thenThrow(new ConflictException("No copies available for book id " + bookId));
+
+        mockMvc.perform(post("/api/borrow/{bookId}/patron/{patronId}", bookId, patronId)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("No copies available for book id " + bookId));
+
+        verify(borrowingService, times(1)).borrowBook(bookId, patronId);
+    }
+
+    /**
+     * Test for GET /api/borrow?after=&limit= - Invalid Cursor
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetBorrowsPage_InvalidCursor() throws Exception {
+        when(borrowingService.getBorrowsPage("bogus", 20))
+                .thenThrow(new BadRequestException("Invalid cursor bogus"));
+
+        mockMvc.perform(get("/api/borrow")
+                .param("after", "bogus")
+                .param("limit", "20")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor bogus"));
+
+        verify(borrowingService, times(1)).getBorrowsPage("bogus", 20);
+    }
+
+    /**
+     * Test for GET /api/loans/overdue
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetOverdueLoans() throws Exception {
+        DueLoan overdueLoan = new DueLoan(5L, 1L, 2L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15));
+
+        when(borrowingService.getOverdueLoans()).thenReturn(List.of(overdueLoan));
+
+        mockMvc.perform(get("/api/loans/overdue")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(jsonPath("$[0].bookId").value(1))
+                .andExpect(jsonPath("$[0].dueDate").value("2024-01-15"));
+
+        verify(borrowingService, times(1)).getOverdueLoans();
+    }
+
+    /**
+     * Test for POST /api/borrow/batch
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testBorrowBooks() throws Exception {
+        Long patronId = 1L;
+        List<Long> bookIds = List.of(10L, 11L, 12L);
+        BatchCirculationResult result = new BatchCirculationResult(patronId, List.of(
+                new BatchCirculationResult.Item(10L, BatchCirculationResult.Status.BORROWED, 100L),
+                new BatchCirculationResult.Item(11L, BatchCirculationResult.Status.UNAVAILABLE, null),
+                new BatchCirculationResult.Item(12L, BatchCirculationResult.Status.NOT_FOUND, null)));
+
+        when(borrowingService.borrowBooks(patronId, bookIds)).thenReturn(result);
+
+        mockMvc.perform(post("/api/borrow/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchCirculationRequest(patronId, bookIds))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patronId").value(patronId))
+                .andExpect(jsonPath("$.items[0].status").value("BORROWED"))
+                .andExpect(jsonPath("$.items[0].recordId").value(100))
+                .andExpect(jsonPath("$.items[1].status").value("UNAVAILABLE"))
+                .andExpect(jsonPath("$.items[2].status").value("NOT_FOUND"));
+
+        verify(borrowingService, times(1)).borrowBooks(patronId, bookIds);
+    }
+
+    /**
+     * Test for PUT /api/return/batch - Validation Error
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testReturnBooks_ValidationError() throws Exception {
+        mockMvc.perform(put("/api/return/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchCirculationRequest(null, List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.patronId").value("must not be null"))
+                .andExpect(jsonPath("$.bookIds").value("must not be empty"));
+
+        verify(borrowingService, times(0)).returnBooks(any(), anyList());
+    }
 }
@@ -0,0 +1,78 @@
+package com.task.library.controller;
+
+import com.task.library.config.SecurityConfig;
+import com.task.library.dto.CacheStatistics;
+import com.task.library.dto.RegionStatistics;
+import com.task.library.service.CacheStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for CacheController
+ */
+@WebMvcTest(CacheController.class)
+@ExtendWith(SpringExtension.class)
+@Import(SecurityConfig.class) // Import security configuration
+public class CacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CacheStatsService cacheStatsService;
+
+    /**
+     * Test for GET /api/cache/stats
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetCacheStatistics() throws Exception {
+        CacheStatistics books = new CacheStatistics(2, 9, 1, 0.9, 0, 1, 1.5);
+
+        when(cacheStatsService.getCacheStatistics()).thenReturn(Map.of("books", books));
+
+        mockMvc.perform(get("/api/cache/stats")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.size").value(2))
+                .andExpect(jsonPath("$.books.hitCount").value(9))
+                .andExpect(jsonPath("$.books.hitRate").value(0.9));
+
+        verify(cacheStatsService, times(1)).getCacheStatistics();
+    }
+
+    /**
+     * Test for GET /api/cache/regions
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetRegionStatistics() throws Exception {
+        RegionStatistics book = new RegionStatistics(8, 2, 0.8, 2);
+
+        when(cacheStatsService.getRegionStatistics()).thenReturn(Map.of("book", book));
+
+        mockMvc.perform(get("/api/cache/regions")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.book.hitCount").value(8))
+                .andExpect(jsonPath("$.book.missCount").value(2))
+                .andExpect(jsonPath("$.book.hitRate").value(0.8));
+
+        verify(cacheStatsService, times(1)).getRegionStatistics();
+    }
+}
@@ -0,0 +1,107 @@
+package com.task.library.controller;
+
+import com.task.library.config.SecurityConfig;
+import com.task.library.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for ExportController
+ */
+@WebMvcTest(ExportController.class)
+@ExtendWith(SpringExtension.class)
+@Import(SecurityConfig.class) // Import security configuration
+public class ExportControllerTest {
+
+    private static final String BOOKS_NDJSON = "{\"id\":1,\"title\":\"Book One\"}\n{\"id\":2,\"title\":\"Book Two\"}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportService exportService;
+
+    /**
+     * Test for GET /api/export/books
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testExportBooks() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(BOOKS_NDJSON.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportBooks(any(OutputStream.class));
+
+        mockMvc.perform(get("/api/export/books"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().string(BOOKS_NDJSON));
+
+        verify(exportService, times(1)).exportBooks(any(OutputStream.class));
+    }
+
+    /**
+     * Test for GET /api/export/books - Gzip
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testExportBooks_Gzip() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(BOOKS_NDJSON.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportBooks(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/export/books")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertEquals(BOOKS_NDJSON, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Test for GET /api/export/books - Gzip refused with q=0
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testExportBooks_GzipRefused() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(BOOKS_NDJSON.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportBooks(any(OutputStream.class));
+
+        mockMvc.perform(get("/api/export/books")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "x-gzip-like, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().string(BOOKS_NDJSON));
+    }
+}
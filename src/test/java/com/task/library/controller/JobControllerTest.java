@@ -0,0 +1,142 @@
+package com.task.library.controller;
+
+import com.task.library.config.SecurityConfig;
+import com.task.library.dto.JobRequest;
+import com.task.library.dto.JobStatus;
+import com.task.library.exception.ConflictException;
+import com.task.library.exception.ResourceNotFoundException;
+import com.task.library.exception.ServiceUnavailableException;
+import com.task.library.service.JobService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for JobController
+ */
+@WebMvcTest(JobController.class)
+@ExtendWith(SpringExtension.class)
+@Import(SecurityConfig.class) // Import security configuration
+public class JobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JobService jobService;
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Test for POST /api/jobs
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testSubmitJob() throws Exception {
+        when(jobService.submit(any(JobRequest.class))).thenReturn(jobStatus("job-1", JobStatus.State.QUEUED));
+
+        mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"LOAN_HISTORY\",\"priority\":\"HIGH\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/jobs/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andExpect(jsonPath("$.total").value(-1));
+
+        verify(jobService, times(1)).submit(any(JobRequest.class));
+    }
+
+    /**
+     * Test for POST /api/jobs - Missing type and a full queue
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testSubmitJob_Rejected() throws Exception {
+        mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"priority\":\"HIGH\"}"))
+                .andExpect(status().isBadRequest());
+
+        when(jobService.submit(any(JobRequest.class))).thenThrow(new ServiceUnavailableException("Too many report jobs queued"));
+        mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"CATALOG_AUDIT\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Too many report jobs queued"));
+    }
+
+    /**
+     * Test for GET /api/jobs/{id}
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetJob() throws Exception {
+        when(jobService.getStatus("job-1")).thenReturn(jobStatus("job-1", JobStatus.State.RUNNING));
+        when(jobService.getStatus("missing")).thenThrow(new ResourceNotFoundException("Job not found with id missing"));
+
+        mockMvc.perform(get("/api/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.processed").value(5));
+        mockMvc.perform(get("/api/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test for GET /api/jobs/{id}/result
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetJobResult() throws Exception {
+        Path result = Files.writeString(directory.resolve("job-1.ndjson"), "{\"id\":1}\n");
+        when(jobService.getResult("job-1")).thenReturn(result);
+        when(jobService.getResult("job-2")).thenThrow(new ConflictException("Job job-2 has no result, it is RUNNING"));
+
+        mockMvc.perform(get("/api/jobs/job-1/result"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+        mockMvc.perform(get("/api/jobs/job-2/result"))
+                .andExpect(status().isConflict());
+    }
+
+    /**
+     * Test for DELETE /api/jobs/{id}
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testCancelJob() throws Exception {
+        when(jobService.cancel("job-1")).thenReturn(jobStatus("job-1", JobStatus.State.CANCELLED));
+
+        mockMvc.perform(delete("/api/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("CANCELLED"));
+
+        verify(jobService, times(1)).cancel("job-1");
+    }
+
+    private static JobStatus jobStatus(String id, JobStatus.State state) {
+        boolean queued = state == JobStatus.State.QUEUED;
+        return new JobStatus(id, JobRequest.Type.LOAN_HISTORY, JobRequest.Priority.HIGH, state, queued ? 0 : 5,
+                queued ? -1 : 10, Instant.now(), queued ? null : Instant.now(), null, null);
+    }
+}
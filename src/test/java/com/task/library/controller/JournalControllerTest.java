@@ -0,0 +1,80 @@
+package com.task.library.controller;
+
+import com.task.library.config.SecurityConfig;
+import com.task.library.dto.JournalReplayResult;
+import com.task.library.exception.BadRequestException;
+import com.task.library.exception.ConflictException;
+import com.task.library.service.JournalReplayService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for JournalController
+ */
+@WebMvcTest(JournalController.class)
+@ExtendWith(SpringExtension.class)
+@Import(SecurityConfig.class) // Import security configuration
+public class JournalControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JournalReplayService journalReplayService;
+
+    /**
+     * Test for POST /api/journal/replay?from=
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testReplay() throws Exception {
+        when(journalReplayService.rebuildDatabase(40)).thenReturn(new JournalReplayResult(40, 3, 42));
+
+        mockMvc.perform(post("/api/journal/replay")
+                        .param("from", "40"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromSequence").value(40))
+                .andExpect(jsonPath("$.records").value(3))
+                .andExpect(jsonPath("$.lastSequence").value(42));
+
+        verify(journalReplayService, times(1)).rebuildDatabase(40);
+    }
+
+    /**
+     * Test for POST /api/journal/replay?from= - Sequence out of range
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testReplay_InvalidSequence() throws Exception {
+        when(journalReplayService.rebuildDatabase(0)).thenThrow(new BadRequestException("from must be at least 1"));
+
+        mockMvc.perform(post("/api/journal/replay")
+                        .param("from", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test for POST /api/journal/replay?from= - Application has already written
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testReplay_AfterWrites() throws Exception {
+        when(journalReplayService.rebuildDatabase(1)).thenThrow(new ConflictException("The journal can only be replayed before the application has written"));
+
+        mockMvc.perform(post("/api/journal/replay"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("The journal can only be replayed before the application has written"));
+    }
+}
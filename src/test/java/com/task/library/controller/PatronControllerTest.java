@@ -2,7 +2,13 @@ package com.task.library.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.task.library.config.SecurityConfig;
+import com.task.library.dto.BorrowingRecordSummary;
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.PatronDto;
+import com.task.library.dto.PatronLoan;
+import com.task.library.dto.VersionedList;
 import com.task.library.entity.Patron;
+import com.task.library.service.CatalogVersion;
 import com.task.library.service.PatronService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,19 +16,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * Test class for PatronController
@@ -38,6 +46,9 @@ public class PatronControllerTest {
     @MockBean
     private PatronService patronService;
 
+    @MockBean
+    private CatalogVersion catalogVersion;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -50,7 +61,7 @@ public class PatronControllerTest {
         Patron patron1 = new Patron(1L, "Patron One", "patron1@example.com", null);
         Patron patron2 = new Patron(2L, "Patron Two", "patron2@example.com", null);
 
-        when(patronService.getAllPatrons()).thenReturn(Arrays.asList(patron1, patron2));
+        when(patronService.getAllPatrons()).thenReturn(new VersionedList<>(1L, Arrays.asList(PatronDto.of(patron1), PatronDto.of(patron2))));
 
         mockMvc.perform(get("/api/patrons")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -63,6 +74,28 @@ public class PatronControllerTest {
         verify(patronService, times(1)).getAllPatrons();
     }
 
+    /**
+     * Test for GET /api/patrons?after=&limit=
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetPatronsPage() throws Exception {
+        Patron patron = new Patron(3L, "Patron Three", "patron3@example.com", null);
+        String after = CursorPage.encodeCursor(2L);
+
+        when(patronService.getPatronsPage(after, 10)).thenReturn(new CursorPage<>(Arrays.asList(PatronDto.of(patron)), null));
+
+        mockMvc.perform(get("/api/patrons")
+                .param("after", after)
+                .param("limit", "10")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(patron.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(patronService, times(1)).getPatronsPage(after, 10);
+    }
+
     /**
      * Test for GET /api/patrons/{id}
      */
@@ -72,7 +105,7 @@ public class PatronControllerTest {
         Long patronId = 1L;
         Patron patron = new Patron(patronId, "Patron One", "patron1@example.com", null);
 
-        when(patronService.getPatronById(patronId)).thenReturn(patron);
+        when(patronService.getPatronById(patronId)).thenReturn(PatronDto.of(patron));
 
         mockMvc.perform(get("/api/patrons/{id}", patronId)
                 .contentType(MediaType.APPLICATION_JSON))
@@ -83,6 +116,88 @@ public class PatronControllerTest {
         verify(patronService, times(1)).getPatronById(patronId);
     }
 
+    /**
+     * Test for GET /api/patrons/{id} - ETag from the patron version when it is not cached
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetPatronById_NotModified() throws Exception {
+        Long patronId = 1L;
+        Patron patron = new Patron(patronId, "Patron One", "patron1@example.com", null);
+        patron.setVersion(2L);
+        when(catalogVersion.getEpoch()).thenReturn(36L);
+        when(patronService.findCachedVersion(patronId)).thenReturn(null);
+        when(patronService.getPatronById(patronId)).thenReturn(PatronDto.of(patron));
+        when(patronService.getAllPatrons()).thenReturn(new VersionedList<>(1L, List.of()));
+
+        mockMvc.perform(get("/api/patrons/{id}", patronId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"10-2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"10-2\""));
+
+        mockMvc.perform(get("/api/patrons")
+                        .param("include", "loans")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"10-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    /**
+     * Test for GET /api/patrons/{id}?include=loans
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetPatronById_IncludeLoans() throws Exception {
+        Long patronId = 1L;
+        PatronDto patron = PatronDto.of(new Patron(patronId, "Patron One", "patron1@example.com", null));
+        BorrowingRecordSummary loan = new BorrowingRecordSummary(10L, 3L, patronId, LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 9));
+
+        when(patronService.getPatronById(patronId)).thenReturn(patron);
+        when(patronService.withLoans(List.of(patron))).thenReturn(List.of(patron.withLoans(List.of(loan))));
+
+        mockMvc.perform(get("/api/patrons/{id}", patronId)
+                .param("include", "loans")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(patronId))
+                .andExpect(jsonPath("$.loans[0].bookId").value(loan.getBookId()))
+                .andExpect(jsonPath("$.loans[0].returnDate").value("2024-01-09"));
+
+        verify(patronService, times(1)).withLoans(List.of(patron));
+    }
+
+    /**
+     * Test for GET /api/patrons/{id}/loans?status=&from=&to=&limit=
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetPatronLoans() throws Exception {
+        Long patronId = 1L;
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        PatronLoan loan = new PatronLoan(10L, LocalDate.of(2024, 3, 4), null,
+                3L, "Book Three", "Author Three", 2003, "9780306406157");
+        String nextCursor = CursorPage.encodeCursor(10L);
+
+        when(patronService.getLoans(patronId, "active", from, to, null, 1))
+                .thenReturn(new CursorPage<>(List.of(loan), nextCursor));
+
+        mockMvc.perform(get("/api/patrons/{id}/loans", patronId)
+                .param("status", "active")
+                .param("from", "2024-01-01")
+                .param("to", "2024-12-31")
+                .param("limit", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(10))
+                .andExpect(jsonPath("$.items[0].borrowDate").value("2024-03-04"))
+                .andExpect(jsonPath("$.items[0].book.title").value("Book Three"))
+                .andExpect(jsonPath("$.items[0].book.isbn").value("9780306406157"))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+
+        verify(patronService, times(1)).getLoans(patronId, "active", from, to, null, 1);
+    }
+
     /**
      * Test for POST /api/patrons
      */
@@ -92,7 +207,7 @@ public class PatronControllerTest {
         Patron patron = new Patron(null, "New Patron", "newpatron@example.com", null);
         Patron savedPatron = new Patron(1L, "New Patron", "newpatron@example.com", null);
 
-        when(patronService.createPatron(any(Patron.class))).thenReturn(savedPatron);
+        when(patronService.createPatron(any(Patron.class))).thenReturn(PatronDto.of(savedPatron));
 
         mockMvc.perform(post("/api/patrons")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -114,7 +229,7 @@ public class PatronControllerTest {
         Patron patronDetails = new Patron(null, "Updated Patron", "updated@example.com", null);
         Patron updatedPatron = new Patron(patronId, "Updated Patron", "updated@example.com", null);
 
-        when(patronService.updatePatron(eq(patronId), any(Patron.class))).thenReturn(updatedPatron);
+        when(patronService.updatePatron(eq(patronId), any(Patron.class))).thenReturn(PatronDto.of(updatedPatron));
 
         mockMvc.perform(put("/api/patrons/{id}", patronId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,94 @@
+package com.task.library.controller;
+
+import com.task.library.config.SecurityConfig;
+import com.task.library.dto.DailyVolume;
+import com.task.library.dto.RankedCount;
+import com.task.library.exception.BadRequestException;
+import com.task.library.service.CirculationStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for StatsController
+ */
+@WebMvcTest(StatsController.class)
+@ExtendWith(SpringExtension.class)
+@Import(SecurityConfig.class) // Import security configuration
+public class StatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CirculationStatsService circulationStatsService;
+
+    /**
+     * Test for GET /api/stats/daily?days=
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetDailyVolume() throws Exception {
+        when(circulationStatsService.getDailyVolume(7))
+                .thenReturn(List.of(new DailyVolume(LocalDate.of(2024, 6, 30), 12, 9)));
+
+        mockMvc.perform(get("/api/stats/daily")
+                        .param("days", "7")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].date").value("2024-06-30"))
+                .andExpect(jsonPath("$[0].checkouts").value(12))
+                .andExpect(jsonPath("$[0].returns").value(9));
+
+        verify(circulationStatsService, times(1)).getDailyVolume(7);
+    }
+
+    /**
+     * Test for GET /api/stats/top-books with the default 30-day window
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetTopBooks() throws Exception {
+        when(circulationStatsService.getTopBooks(30, 5)).thenReturn(List.of(new RankedCount(3L, 40)));
+
+        mockMvc.perform(get("/api/stats/top-books")
+                        .param("limit", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[0].count").value(40));
+
+        verify(circulationStatsService, times(1)).getTopBooks(30, 5);
+    }
+
+    /**
+     * Test for GET /api/stats/top-patrons?days= - Window out of range
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetTopPatrons_InvalidWindow() throws Exception {
+        when(circulationStatsService.getTopPatrons(400, null))
+                .thenThrow(new BadRequestException("days must be between 1 and 365"));
+
+        mockMvc.perform(get("/api/stats/top-patrons")
+                        .param("days", "400")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("days must be between 1 and 365"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.task.library.loadtest;
+
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import com.task.library.repository.BookRepository;
+import com.task.library.repository.PatronRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application on a random local port, seeds a catalog and runs the
+ * circulation load test against it over real HTTP. Skipped by default; run with
+ * {@code mvn test -Dtest=CirculationLoadTest -Dloadtest=true [-Dloadtest.mode=open|closed
+ * -Dloadtest.rate=200 -Dloadtest.clients=64 -Dloadtest.durationSeconds=30]}.
+ * Histograms are written to {@code target/loadtest}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class CirculationLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Test
+    public void circulationWorkload() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        List<Book> books = new ArrayList<>(settings.getBooks());
+        for (int i = 0; i < settings.getBooks(); i++) {
+            Book book = new Book();
+            book.setTitle("Load Test Title " + i);
+            book.setAuthor("Load Test Author " + (i % 97));
+            book.setPublicationYear(1950 + i % 70);
+            book.setIsbn(String.format("978%010d", i));
+            books.add(book);
+        }
+        List<Patron> patrons = new ArrayList<>(settings.getPatrons());
+        for (int i = 0; i < settings.getPatrons(); i++) {
+            Patron patron = new Patron();
+            patron.setName("Load Test Patron " + i);
+            patron.setContactInformation("patron" + i + "@example.com");
+            patrons.add(patron);
+        }
+        List<Long> bookIds = bookRepository.saveAll(books).stream().map(Book::getId).toList();
+        List<Long> patronIds = patronRepository.saveAll(patrons).stream().map(Patron::getId).toList();
+
+        LoadTestRunner runner = new LoadTestRunner("http://localhost:" + port, "admin", "123456",
+                settings, bookIds, patronIds);
+        runner.run();
+        runner.report(System.out, Path.of("target", "loadtest"));
+    }
+}
@@ -0,0 +1,222 @@
+package com.task.library.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a mixed catalog read / circulation write workload against a running instance
+ * and records per-operation latency in HdrHistograms.
+ * <p>
+ * In {@link Mode#OPEN} requests are issued at a fixed arrival rate whatever the response
+ * times, and latency is measured from the scheduled start, so queueing delay is included
+ * (no coordinated omission). In {@link Mode#CLOSED} each client waits for its response
+ * before sending the next request.
+ */
+public class LoadTestRunner {
+
+    public enum Mode { OPEN, CLOSED }
+
+    enum Operation { GET_BOOK, LIST_BOOKS, BORROW, RETURN }
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String baseUrl;
+
+    private final String authorization;
+
+    private final LoadTestSettings settings;
+
+    private final List<Long> bookIds;
+
+    private final List<Long> patronIds;
+
+    private final HttpClient httpClient;
+
+    private final Map<Operation, Histogram> latencies = new LinkedHashMap<>();
+
+    private final Map<Operation, AtomicLong> errors = new LinkedHashMap<>();
+
+    private final ConcurrentLinkedQueue<long[]> activeLoans = new ConcurrentLinkedQueue<>();
+
+    public LoadTestRunner(String baseUrl, String username, String password, LoadTestSettings settings,
+                          List<Long> bookIds, List<Long> patronIds) {
+        this.baseUrl = baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.settings = settings;
+        this.bookIds = bookIds;
+        this.patronIds = patronIds;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public void run() throws InterruptedException {
+        // Warm up connections, JIT and caches; the histograms are reset afterwards
+        execute(settings.getWarmup());
+        latencies.values().forEach(Histogram::reset);
+        errors.values().forEach(counter -> counter.set(0));
+        execute(settings.getDuration());
+    }
+
+    private void execute(Duration duration) throws InterruptedException {
+        // Virtual client threads, so thousands of concurrent clients cost the load generator little
+        ExecutorService clients = Executors.newFixedThreadPool(settings.getClients(), Thread.ofVirtual().name("client-", 0).factory());
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        if (settings.getMode() == Mode.OPEN) {
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * intervalNanos;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                clients.execute(() -> issue(intendedStart));
+            }
+        } else {
+            for (int i = 0; i < settings.getClients(); i++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        issue(System.nanoTime());
+                    }
+                });
+            }
+        }
+
+        clients.shutdown();
+        clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    private void issue(long intendedStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = pickOperation(random);
+        long[] loan = null;
+        HttpRequest request;
+        switch (operation) {
+            case GET_BOOK -> request = request("/api/books/" + pick(bookIds, random)).GET().build();
+            case LIST_BOOKS -> request = request("/api/books?limit=50").GET().build();
+            case BORROW -> {
+                loan = new long[]{pick(bookIds, random), pick(patronIds, random)};
+                request = request("/api/borrow/" + loan[0] + "/patron/" + loan[1])
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+            }
+            default -> {
+                loan = activeLoans.poll();
+                request = request("/api/return/" + loan[0] + "/patron/" + loan[1])
+                        .PUT(HttpRequest.BodyPublishers.noBody()).build();
+            }
+        }
+
+        boolean ok;
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() < 400;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        latencies.get(operation).recordValue(Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS));
+
+        if (!ok) {
+            errors.get(operation).incrementAndGet();
+        } else if (operation == Operation.BORROW) {
+            activeLoans.add(loan);
+        }
+    }
+
+    private Operation pickOperation(ThreadLocalRandom random) {
+        if (random.nextDouble() < settings.getReadRatio()) {
+            return random.nextBoolean() ? Operation.GET_BOOK : Operation.LIST_BOOKS;
+        }
+        // Writes alternate between checkouts and returns of earlier checkouts
+        return random.nextBoolean() || activeLoans.isEmpty() ? Operation.BORROW : Operation.RETURN;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization);
+    }
+
+    private static long pick(List<Long> ids, ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    /**
+     * Prints a summary table and writes one HdrHistogram percentile distribution
+     * ({@code .hgrm}, values in milliseconds) per operation into {@code directory}.
+     */
+    public void report(PrintStream out, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        double seconds = settings.getDuration().toMillis() / 1000.0;
+        out.printf("mode=%s clients=%d rate=%s duration=%ss%n", settings.getMode(), settings.getClients(),
+                settings.getMode() == Mode.OPEN ? settings.getRate() + "/s" : "n/a", seconds);
+        out.printf("%-12s %10s %10s %10s %10s %10s %10s %8s%n",
+                "operation", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        long allErrors = 0;
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            all.add(histogram);
+            allErrors += errors.get(entry.getKey()).get();
+            printRow(out, entry.getKey().name(), histogram, seconds, errors.get(entry.getKey()).get());
+
+            Path file = directory.resolve(entry.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+                histogram.outputPercentileDistribution(hgrm, 1_000_000.0);
+            }
+        }
+        printRow(out, "ALL", all, seconds, allErrors);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, double seconds, long errors) {
+        out.printf("%-12s %10d %10.1f %10.3f %10.3f %10.3f %10.3f %8d%n",
+                name,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                errors);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.task.library.loadtest;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties.
+ */
+@Getter
+public class LoadTestSettings {
+
+    private final LoadTestRunner.Mode mode;
+
+    private final int clients;
+
+    private final int rate;
+
+    private final double readRatio;
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    private final int books;
+
+    private final int patrons;
+
+    private LoadTestSettings() {
+        mode = LoadTestRunner.Mode.valueOf(System.getProperty("loadtest.mode", "open").toUpperCase());
+        clients = Integer.getInteger("loadtest.clients", 64);
+        rate = Integer.getInteger("loadtest.rate", 200);
+        readRatio = Double.parseDouble(System.getProperty("loadtest.readRatio", "0.8"));
+        warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmupSeconds", 10));
+        duration = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 30));
+        books = Integer.getInteger("loadtest.books", 1_000);
+        patrons = Integer.getInteger("loadtest.patrons", 200);
+    }
+
+    private LoadTestSettings(LoadTestSettings settings, LoadTestRunner.Mode mode, int clients) {
+        this.mode = mode;
+        this.clients = clients;
+        rate = settings.rate;
+        readRatio = settings.readRatio;
+        warmup = settings.warmup;
+        duration = settings.duration;
+        books = settings.books;
+        patrons = settings.patrons;
+    }
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings();
+    }
+
+    /**
+     * The same settings with {@code clients} closed-loop clients.
+     */
+    public LoadTestSettings closedWithClients(int clients) {
+        return new LoadTestSettings(this, LoadTestRunner.Mode.CLOSED, clients);
+    }
+}
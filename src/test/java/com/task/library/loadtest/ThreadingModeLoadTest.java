@@ -0,0 +1,85 @@
+package com.task.library.loadtest;
+
+import com.task.library.LibraryApplication;
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import com.task.library.repository.BookRepository;
+import com.task.library.repository.PatronRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares request handling on the bounded platform-thread pool with virtual threads:
+ * for each mode the application is started on a random port and the circulation workload
+ * is run closed-loop at each client count, reporting throughput and tail latency. Skipped
+ * by default; run with {@code mvn test -Dtest=ThreadingModeLoadTest -Dloadtest=true
+ * [-Dloadtest.clientCounts=100,1000,10000 -Dloadtest.durationSeconds=30]}. Histograms are
+ * written to {@code target/loadtest/<mode>-<clients>}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class ThreadingModeLoadTest {
+
+    @Test
+    public void platformVersusVirtualThreads() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        int[] clientCounts = Arrays.stream(System.getProperty("loadtest.clientCounts", "100,1000,10000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            String mode = virtualThreads ? "virtual" : "platform";
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApplication.class)
+                    .properties("server.port=0", "logging.level.root=WARN", "logging.level.com.task.library.aspect=OFF",
+                            "library.journal.enabled=false",
+                            // Clients beyond the connector's limit wait in the accept backlog in both modes
+                            "server.tomcat.accept-count=" + Arrays.stream(clientCounts).max().orElse(100),
+                            "spring.threads.virtual.enabled=" + virtualThreads)
+                    .run()) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                List<Long> bookIds = seedBooks(context.getBean(BookRepository.class), settings.getBooks());
+                List<Long> patronIds = seedPatrons(context.getBean(PatronRepository.class), settings.getPatrons());
+
+                for (int clients : clientCounts) {
+                    LoadTestRunner runner = new LoadTestRunner("http://localhost:" + port, "admin", "123456",
+                            settings.closedWithClients(clients), bookIds, patronIds);
+                    runner.run();
+                    System.out.println("threads=" + mode);
+                    runner.report(System.out, Path.of("target", "loadtest", mode + "-" + clients));
+                }
+            }
+        }
+    }
+
+    private static List<Long> seedBooks(BookRepository bookRepository, int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setTitle("Load Test Title " + i);
+            book.setAuthor("Load Test Author " + (i % 97));
+            book.setPublicationYear(1950 + i % 70);
+            book.setIsbn(String.format("978%010d", i));
+            books.add(book);
+        }
+        return bookRepository.saveAll(books).stream().map(Book::getId).toList();
+    }
+
+    private static List<Long> seedPatrons(PatronRepository patronRepository, int count) {
+        List<Patron> patrons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Patron patron = new Patron();
+            patron.setName("Load Test Patron " + i);
+            patron.setContactInformation("patron" + i + "@example.com");
+            patrons.add(patron);
+        }
+        return patronRepository.saveAll(patrons).stream().map(Patron::getId).toList();
+    }
+}
@@ -0,0 +1,145 @@
+package com.task.library.repository;
+
+import com.task.library.dto.PatronLoan;
+import com.task.library.entity.BorrowingRecord;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BorrowingRecordRepository against the migrated schema
+ * with ten thousand rows of returned loan history, analyzed so the planner
+ * costs the index plans from real statistics.
+ */
+@DataJpaTest
+public class BorrowingRecordRepositoryTest {
+
+    private static final int HISTORY_ROWS = 10_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Seeds the history once in its own committed transaction, so every test of the
+     * class reads the same rows and the planner statistics gathered by ANALYZE.
+     */
+    @BeforeEach
+    public void seedLoanHistory() {
+        TransactionTemplate seedTransaction = new TransactionTemplate(transactionManager);
+        seedTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        seedTransaction.executeWithoutResult(status -> {
+            Number books = (Number) entityManager.createNativeQuery("select count(*) from book").getSingleResult();
+            if (books.longValue() == 0) {
+                insertLoanHistory();
+            }
+        });
+    }
+
+    private void insertLoanHistory() {
+        entityManager.createNativeQuery("insert into book (id, title, author, publication_year, isbn, copies_total, copies_available, version) " +
+                "select x, 'Title ' || x, 'Author', 2000, 'ISBN' || x, 5, 5, 0 from system_range(1, 1000)").executeUpdate();
+        entityManager.createNativeQuery("insert into patron (id, name, contact_information) " +
+                "select x, 'Patron ' || x, 'patron@example.com' from system_range(1, 1000)").executeUpdate();
+        entityManager.createNativeQuery("insert into borrowing_record (id, book_id, patron_id, borrow_date, return_date) " +
+                "select x, mod(x, 1000) + 1, mod(x / 1000, 1000) + 1, date '2020-01-01', date '2020-01-15' " +
+                "from system_range(1, " + HISTORY_ROWS + ")").executeUpdate();
+        entityManager.createNativeQuery("insert into borrowing_record (id, book_id, patron_id, borrow_date, return_date) " +
+                "values (" + (HISTORY_ROWS + 1) + ", 42, 7, current_date, null)").executeUpdate();
+        entityManager.createNativeQuery("analyze").executeUpdate();
+    }
+
+    /**
+     * Test for findByBookIdAndPatronIdAndReturnDateIsNull
+     */
+    @Test
+    public void testFindActiveLoan() {
+        BorrowingRecord activeRecord = borrowingRecordRepository.findByBookIdAndPatronIdAndReturnDateIsNull(42L, 7L);
+
+        assertNotNull(activeRecord);
+        assertEquals(HISTORY_ROWS + 1L, activeRecord.getId());
+        assertNull(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnDateIsNull(43L, 7L));
+    }
+
+    /**
+     * Test that the active loan lookup is an index seek rather than a table scan
+     */
+    @Test
+    public void testFindActiveLoan_UsesCompositeIndex() {
+        String plan = explain("select br.id from borrowing_record br " +
+                "where br.book_id = 42 and br.patron_id = 7 and br.return_date is null");
+
+        assertTrue(plan.contains("IDX_BORROWING_RECORD_BOOK_PATRON_RETURN"), plan);
+        assertTrue(plan.contains("RETURN_DATE IS NULL"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    /**
+     * Test that the patron's active loans are found through an index
+     */
+    @Test
+    public void testFindActiveBookIds_UsesIndex() {
+        List<Long> bookIds = borrowingRecordRepository.findActiveBookIds(7L, List.of(41L, 42L));
+        String plan = explain("select br.book_id from borrowing_record br " +
+                "where br.patron_id = 7 and br.book_id in (41, 42) and br.return_date is null");
+
+        assertEquals(List.of(42L), bookIds);
+        assertTrue(plan.contains("IDX_BORROWING_RECORD_"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    /**
+     * Test for findActivePatronLoans and findReturnedPatronLoans, newest first with a keyset on id
+     */
+    @Test
+    public void testFindPatronLoans() {
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(9999, 12, 31);
+
+        List<PatronLoan> active = borrowingRecordRepository.findActivePatronLoans(7L, from, to, Long.MAX_VALUE, Limit.of(10));
+        List<PatronLoan> returned = borrowingRecordRepository.findReturnedPatronLoans(7L, from, to, Long.MAX_VALUE, Limit.of(3));
+        List<PatronLoan> nextPage = borrowingRecordRepository.findReturnedPatronLoans(7L, from, to, returned.get(2).getId(), Limit.of(3));
+        List<PatronLoan> outOfRange = borrowingRecordRepository.findPatronLoans(7L, from, LocalDate.of(2019, 12, 31), Long.MAX_VALUE, Limit.of(10));
+
+        assertEquals(1, active.size());
+        assertEquals(42L, active.get(0).getBook().getId());
+        assertNull(active.get(0).getReturnDate());
+        assertEquals(List.of(6999L, 6998L, 6997L), returned.stream().map(PatronLoan::getId).toList());
+        assertEquals("Title 1000", returned.get(0).getBook().getTitle());
+        assertEquals(List.of(6996L, 6995L, 6994L), nextPage.stream().map(PatronLoan::getId).toList());
+        assertTrue(outOfRange.isEmpty());
+    }
+
+    /**
+     * Test that a page of patron loan history is read through the patron index and joins the book by key
+     */
+    @Test
+    public void testFindPatronLoans_UsesIndex() {
+        String plan = explain("select br.id, b.title from borrowing_record br join book b on b.id = br.book_id " +
+                "where br.patron_id = 7 and br.id < 9223372036854775807 " +
+                "and br.borrow_date between date '2000-01-01' and date '9999-12-31' order by br.id desc fetch first 51 rows only");
+
+        assertTrue(plan.contains("IDX_BORROWING_RECORD_PATRON"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    private String explain(String sql) {
+        return entityManager.createNativeQuery("explain " + sql).getSingleResult().toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.task.library.service;
+
+import com.task.library.dto.BookSearchHit;
+import com.task.library.dto.BookSummary;
+import com.task.library.dto.CursorPage;
+import com.task.library.exception.BadRequestException;
+import com.task.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for BookSearchIndex
+ */
+public class BookSearchIndexTest {
+
+    private BookRepository bookRepository;
+
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        bookRepository = mock(BookRepository.class);
+        bookSearchIndex = new BookSearchIndex();
+        ReflectionTestUtils.setField(bookSearchIndex, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(bookSearchIndex, "rebuildPageSize", 2);
+
+        when(bookRepository.findSummariesAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new BookSummary(1L, "The Hobbit", "J. R. R. Tolkien", 1937, null),
+                new BookSummary(2L, "The Lord of the Rings", "J. R. R. Tolkien", 1954, null)));
+        when(bookRepository.findSummariesAfter(eq(2L), any(Limit.class))).thenReturn(List.of(
+                new BookSummary(3L, "Cien años de soledad", "Gabriel García Márquez", 1967, null),
+                new BookSummary(4L, "Tolkien: A Biography", "Humphrey Carpenter", 1977, null)));
+        when(bookRepository.findSummariesAfter(eq(4L), any(Limit.class))).thenReturn(List.of());
+        bookSearchIndex.rebuild();
+    }
+
+    /**
+     * Test that rebuild loads every page from the repository
+     */
+    @Test
+    public void testRebuild() {
+        assertEquals(4, bookSearchIndex.size());
+    }
+
+    /**
+     * Test that the index is built once singletons are instantiated, before any request
+     */
+    @Test
+    public void testAfterSingletonsInstantiated() {
+        BookSearchIndex startup = new BookSearchIndex();
+        ReflectionTestUtils.setField(startup, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(startup, "rebuildPageSize", 2);
+
+        startup.afterSingletonsInstantiated();
+
+        assertEquals(4, startup.size());
+        assertEquals(List.of(1L), ids(startup.search("hobbit", null, null).getItems()));
+    }
+
+    /**
+     * Test that a title match ranks above an author match
+     */
+    @Test
+    public void testSearch_RanksTitleMatchesFirst() {
+        List<BookSearchHit> hits = bookSearchIndex.search("tolkien", null, null).getItems();
+
+        assertEquals(List.of(4L, 1L, 2L), ids(hits));
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    /**
+     * Test that every query term has to match
+     */
+    @Test
+    public void testSearch_MatchesAllTerms() {
+        assertEquals(List.of(2L), ids(bookSearchIndex.search("rings tolkien", null, null).getItems()));
+        assertEquals(List.of(), ids(bookSearchIndex.search("rings carpenter", null, null).getItems()));
+    }
+
+    /**
+     * Test prefix, typo and accent-insensitive matching
+     */
+    @Test
+    public void testSearch_PrefixTypoAndAccents() {
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("hob", null, null).getItems()));
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("hobbti", null, null).getItems()));
+        assertEquals(List.of(3L), ids(bookSearchIndex.search("anos marquez", null, null).getItems()));
+    }
+
+    /**
+     * Test that the cursor pages through the ranked hits
+     */
+    @Test
+    public void testSearch_Pagination() {
+        CursorPage<BookSearchHit> first = bookSearchIndex.search("tolkien", null, 2);
+        CursorPage<BookSearchHit> second = bookSearchIndex.search("tolkien", first.getNextCursor(), 2);
+
+        assertEquals(List.of(4L, 1L), ids(first.getItems()));
+        assertEquals(List.of(2L), ids(second.getItems()));
+        assertNull(second.getNextCursor());
+    }
+
+    /**
+     * Test that index, update and remove are reflected in searches
+     */
+    @Test
+    public void testIncrementalUpdates() {
+        bookSearchIndex.index(new BookSummary(5L, "The Silmarillion", "J. R. R. Tolkien", 1977, null));
+        assertEquals(List.of(5L), ids(bookSearchIndex.search("silmarillion", null, null).getItems()));
+
+        bookSearchIndex.index(new BookSummary(5L, "Unfinished Tales", "J. R. R. Tolkien", 1980, null));
+        assertEquals(List.of(), ids(bookSearchIndex.search("silmarillion", null, null).getItems()));
+        assertEquals(List.of(5L), ids(bookSearchIndex.search("unfinished", null, null).getItems()));
+
+        bookSearchIndex.remove(5L);
+        assertEquals(List.of(), ids(bookSearchIndex.search("unfinished", null, null).getItems()));
+        assertEquals(4, bookSearchIndex.size());
+    }
+
+    /**
+     * Test that a query without any term is rejected
+     */
+    @Test
+    public void testSearch_EmptyQuery() {
+        assertThrows(BadRequestException.class, () -> bookSearchIndex.search(" -- ", null, null));
+    }
+
+    private static List<Long> ids(List<BookSearchHit> hits) {
+        return hits.stream().map(BookSearchHit::getId).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.task.library.service;
+
+import com.task.library.dto.BookDto;
+import com.task.library.entity.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that new books, created one at a time or imported, start with every copy
+ * available and a fresh id and version, whatever the client sent for them, and that a
+ * late cache refresh never puts an older copy of a book over a newer one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "admin", roles = "ADMIN")
+public class BookServiceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    /** Test for POST /api/books with more available copies than owned and a client version */
+    @Test
+    public void testCreateBook_MismatchedCopies() throws Exception {
+        mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":777777,\"title\":\"Mismatched\",\"author\":\"Author\",\"publicationYear\":2020," +
+                                "\"isbn\":\"9780000001108\",\"copiesTotal\":2,\"copiesAvailable\":9,\"version\":5}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.copiesTotal").value(2))
+                .andExpect(jsonPath("$.copiesAvailable").value(2))
+                .andExpect(jsonPath("$.version").value(0));
+
+        Map<String, Object> stored = storedBook("9780000001108");
+        assertEquals(2, ((Number) stored.get("copies_available")).intValue());
+        assertNotEquals(777777L, ((Number) stored.get("id")).longValue());
+    }
+
+    /** Test for POST /api/books/bulk with a negative available count in an NDJSON row */
+    @Test
+    public void testImportBooks_MismatchedCopies() throws Exception {
+        mockMvc.perform(post("/api/books/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"Imported mismatch\",\"author\":\"Author\",\"publicationYear\":2020," +
+                                "\"isbn\":\"9780000001115\",\"copiesTotal\":3,\"copiesAvailable\":-4,\"version\":8}\n"))
+                .andExpect(status().isOk());
+
+        Map<String, Object> stored = storedBook("9780000001115");
+        assertEquals(3, ((Number) stored.get("copies_available")).intValue());
+        assertEquals(0L, ((Number) stored.get("version")).longValue());
+    }
+
+    /** Test that refreshing the cache with a copy older than the cached one keeps the cached copy */
+    @Test
+    public void testRefreshCachedBook_OlderCopy() {
+        BookDto created = bookService.createBook(book("Refreshed", 3));
+        bookService.getAllBooks();
+        BookDto updated = bookService.updateBook(created.getId(), book("Refreshed later", 4));
+
+        Book stale = book("Refreshed", 3);
+        stale.setId(created.getId());
+        stale.setVersion(created.getVersion());
+        bookService.refreshCachedBook(stale);
+
+        assertEquals(updated.getVersion(), bookService.getBookById(created.getId()).getVersion());
+        assertEquals("Refreshed later", listed(created.getId()).getTitle());
+
+        Book newer = book("Refreshed after checkout", 4);
+        newer.setId(created.getId());
+        newer.setVersion(updated.getVersion() + 1);
+        bookService.refreshCachedBook(newer);
+
+        assertEquals(newer.getVersion(), bookService.getBookById(created.getId()).getVersion());
+        assertEquals("Refreshed after checkout", listed(created.getId()).getTitle());
+    }
+
+    private BookDto listed(Long id) {
+        return bookService.getAllBooks().getItems().stream().filter(book -> book.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+    private static Book book(String title, int copies) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setPublicationYear(2020);
+        book.setIsbn("9780000001122");
+        book.setCopiesTotal(copies);
+        book.setCopiesAvailable(copies);
+        return book;
+    }
+
+    private Map<String, Object> storedBook(String isbn) {
+        return jdbcTemplate.queryForMap("select id, copies_available, version from book where isbn = ?", isbn);
+    }
+}
@@ -0,0 +1,102 @@
+package com.task.library.service;
+
+import com.task.library.config.CacheConfig;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.PatronDto;
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the persistent profile against a database file under target/ and restores the
+ * entity caches from a snapshot.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/persistent-test/${random.uuid}/library;CACHE_SIZE=8192;WRITE_DELAY=500;DB_CLOSE_ON_EXIT=FALSE",
+        "library.cache.snapshot.file=target/persistent-test/cache-snapshot.bin"})
+@ActiveProfiles("persistent")
+public class CacheSnapshotTest {
+
+    @Autowired
+    private CacheSnapshot cacheSnapshot;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PatronService patronService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${library.cache.snapshot.file}")
+    private Path snapshotFile;
+
+    /** Test for saving the cached books and patrons and loading back only the current ones */
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.getMetaData().getURL().startsWith("jdbc:h2:file:"));
+        }
+        BookDto kept = bookService.createBook(book("Snapshot kept", "9780000001061"));
+        BookDto changed = bookService.createBook(book("Snapshot changed", "9780000001078"));
+        PatronDto patron = patronService.createPatron(patron("Snapshot reader"));
+
+        cacheSnapshot.save();
+        assertTrue(Files.size(snapshotFile) > 0);
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        Cache patrons = cacheManager.getCache(CacheConfig.PATRONS);
+        books.clear();
+        patrons.clear();
+        jdbcTemplate.update("update book set title = 'Changed while down', version = version + 1 where id = ?", changed.getId());
+
+        assertEquals(2, cacheSnapshot.load());
+
+        BookDto restored = books.get(kept.getId(), BookDto.class);
+        assertNotNull(restored);
+        assertEquals("Snapshot kept", restored.getTitle());
+        assertEquals(kept.getVersion(), restored.getVersion());
+        assertEquals(kept.getIsbn(), restored.getIsbn());
+        assertEquals("Snapshot reader", patrons.get(patron.getId(), PatronDto.class).getName());
+        assertNull(books.get(changed.getId()));
+        assertEquals("Changed while down", bookService.getBookById(changed.getId()).getTitle());
+    }
+
+    private static Book book(String title, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setPublicationYear(2020);
+        book.setIsbn(isbn);
+        book.setCopiesTotal(1);
+        book.setCopiesAvailable(1);
+        return book;
+    }
+
+    private static Patron patron(String name) {
+        Patron patron = new Patron();
+        patron.setName(name);
+        patron.setContactInformation(name.toLowerCase().replace(' ', '.') + "@example.com");
+        return patron;
+    }
+}
@@ -0,0 +1,149 @@
+package com.task.library.service;
+
+import com.task.library.dto.BookDto;
+import com.task.library.dto.PatronDto;
+import com.task.library.dto.VersionedList;
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that writes move the catalog versions, that cached copies carry the stored version,
+ * and that a cached list is only served at the current version.
+ */
+@SpringBootTest
+public class CatalogVersionTest {
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PatronService patronService;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /** Test that book writes and checkouts bump the book version and keep the cached version current */
+    @Test
+    public void testBookWrites() {
+        long before = catalogVersion.books();
+        BookDto created = bookService.createBook(book("Versioned", "9780000001054"));
+        assertTrue(catalogVersion.books() > before);
+        assertEquals(created.getVersion(), bookService.findCachedVersion(created.getId()));
+
+        long afterCreate = catalogVersion.books();
+        BookDto updated = bookService.updateBook(created.getId(), book("Versioned again", "9780000001054"));
+        assertTrue(catalogVersion.books() > afterCreate);
+        assertEquals(storedVersion("book", created.getId()), updated.getVersion());
+        assertEquals(updated.getVersion(), bookService.findCachedVersion(created.getId()));
+        assertTrue(updated.getVersion() > created.getVersion());
+
+        PatronDto patron = patronService.createPatron(patron("Versioned reader"));
+        long afterUpdate = catalogVersion.books();
+        borrowingService.borrowBook(created.getId(), patron.getId());
+        assertTrue(catalogVersion.books() > afterUpdate);
+        assertEquals(storedVersion("book", created.getId()), bookService.findCachedVersion(created.getId()));
+    }
+
+    /** Test that patron writes bump the patron version and the patron row version */
+    @Test
+    public void testPatronWrites() {
+        long before = catalogVersion.patrons();
+        PatronDto created = patronService.createPatron(patron("Versioned patron"));
+        assertTrue(catalogVersion.patrons() > before);
+        assertEquals(0L, created.getVersion());
+
+        long afterCreate = catalogVersion.patrons();
+        PatronDto updated = patronService.updatePatron(created.getId(), patron("Renamed patron"));
+        assertTrue(catalogVersion.patrons() > afterCreate);
+        assertEquals(1L, updated.getVersion());
+        assertEquals(storedVersion("patron", created.getId()), updated.getVersion());
+        assertEquals(1L, patronService.findCachedVersion(created.getId()));
+
+        long afterUpdate = catalogVersion.patrons();
+        patronService.deletePatron(created.getId());
+        assertTrue(catalogVersion.patrons() > afterUpdate);
+        assertNull(patronService.findCachedVersion(created.getId()));
+    }
+
+    /** Test that a write patches the cached book list and that a list read before a write is reloaded */
+    @Test
+    public void testBookList_StaleLoad() {
+        List<BookDto> beforeWrite = bookService.getAllBooks().getItems();
+        long before = catalogVersion.books();
+
+        BookDto created = bookService.createBook(book("Listed", "9780000001139"));
+        VersionedList<BookDto> patched = bookService.getAllBooks();
+        assertEquals(catalogVersion.books(), patched.getVersion());
+        assertTrue(patched.getItems().stream().anyMatch(book -> book.getId().equals(created.getId())));
+
+        // What a load that read the table before the commit leaves behind once it finishes
+        cacheManager.getCache("bookList").put(SimpleKey.EMPTY, new VersionedList<>(before, beforeWrite));
+        VersionedList<BookDto> reloaded = bookService.getAllBooks();
+        assertEquals(catalogVersion.books(), reloaded.getVersion());
+        assertTrue(reloaded.getItems().stream().anyMatch(book -> book.getId().equals(created.getId())));
+    }
+
+    /** Test that an import patches the cached book list as each chunk commits */
+    @Test
+    public void testBookList_Import() throws Exception {
+        bookService.getAllBooks();
+        long before = catalogVersion.books();
+
+        String rows = "{\"title\":\"Imported one\",\"author\":\"Author\",\"publicationYear\":2020,\"isbn\":\"9780000001160\"}\n" +
+                "{\"title\":\"Imported two\",\"author\":\"Author\",\"publicationYear\":2020,\"isbn\":\"9780000001177\"}\n";
+        bookImportService.importBooks(new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)), MediaType.APPLICATION_NDJSON);
+
+        VersionedList<BookDto> cached = cacheManager.getCache("bookList").get(SimpleKey.EMPTY, VersionedList.class);
+        assertNotNull(cached);
+        assertEquals(catalogVersion.books(), cached.getVersion());
+        assertTrue(cached.getVersion() > before);
+        assertTrue(cached.getItems().stream().map(BookDto::getIsbn).toList().containsAll(List.of("9780000001160", "9780000001177")));
+    }
+
+    private Long storedVersion(String table, Long id) {
+        return jdbcTemplate.queryForObject("select version from " + table + " where id = ?", Long.class, id);
+    }
+
+    private static Book book(String title, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setPublicationYear(2020);
+        book.setIsbn(isbn);
+        book.setCopiesTotal(2);
+        book.setCopiesAvailable(2);
+        return book;
+    }
+
+    private static Patron patron(String name) {
+        Patron patron = new Patron();
+        patron.setName(name);
+        patron.setContactInformation(name.toLowerCase().replace(' ', '.') + "@example.com");
+        return patron;
+    }
+}
@@ -0,0 +1,90 @@
+package com.task.library.service;
+
+import com.task.library.dto.DailyVolume;
+import com.task.library.dto.RankedCount;
+import com.task.library.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CirculationStatsService
+ */
+public class CirculationStatsServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    private final CirculationStatsService stats = new CirculationStatsService();
+
+    /**
+     * Test that top books and patrons count only the checkouts inside the window
+     */
+    @Test
+    public void testTop_RollingWindow() {
+        checkout(1L, 100L, TODAY, 3);
+        checkout(2L, 100L, TODAY.minusDays(6), 2);
+        checkout(3L, 200L, TODAY.minusDays(7), 5);
+
+        assertEquals(List.of("1=3", "2=2"), ranked(stats.top(CirculationStatsService.Dimension.BOOKS, 7, 10, TODAY)));
+        assertEquals(List.of("3=5", "1=3", "2=2"), ranked(stats.top(CirculationStatsService.Dimension.BOOKS, 30, 10, TODAY)));
+        assertEquals(List.of("100=5"), ranked(stats.top(CirculationStatsService.Dimension.PATRONS, 7, 1, TODAY)));
+    }
+
+    /**
+     * Test that sealed days keep their top books, merge across days and drop only the long tail,
+     * and that later checkouts add to the merged counts
+     */
+    @Test
+    public void testTop_SealedDays() {
+        for (int day = 2; day < 12; day++) {
+            checkout(7L, 100L, TODAY.minusDays(day), 50);
+            for (long bookId = 1000; bookId < 1000 + CirculationStatsService.DAY_CAPACITY + 10; bookId++) {
+                checkout(bookId, 100L, TODAY.minusDays(day), 1 + (int) (bookId % 2));
+            }
+        }
+        List<String> beforeSealing = ranked(stats.top(CirculationStatsService.Dimension.BOOKS, 30, 3, TODAY));
+
+        stats.sealClosedDays(TODAY);
+
+        assertEquals(List.of("7=500", "1001=20", "1003=20"), beforeSealing);
+        assertEquals(beforeSealing, ranked(stats.top(CirculationStatsService.Dimension.BOOKS, 30, 3, TODAY)));
+        assertEquals(CirculationStatsService.MAX_TOP_LIMIT,
+                stats.top(CirculationStatsService.Dimension.BOOKS, 30, 1000, TODAY).size());
+        assertEquals(10 * (50 + 133 * 2 + 133), stats.getDailyVolume(30, TODAY).stream().mapToLong(DailyVolume::getCheckouts).sum());
+
+        checkout(1003L, 100L, TODAY, 490);
+
+        assertEquals(List.of("1003=510", "7=500", "1001=20"), ranked(stats.top(CirculationStatsService.Dimension.BOOKS, 30, 3, TODAY)));
+    }
+
+    /**
+     * Test daily volume, including days without loans, and window validation
+     */
+    @Test
+    public void testGetDailyVolume() {
+        checkout(1L, 100L, TODAY, 2);
+        stats.recordReturn(TODAY);
+        stats.recordReturn(TODAY.minusDays(2));
+
+        List<DailyVolume> volume = stats.getDailyVolume(3, TODAY);
+
+        assertEquals(List.of(TODAY.minusDays(2), TODAY.minusDays(1), TODAY), volume.stream().map(DailyVolume::getDate).toList());
+        assertEquals(List.of(0L, 0L, 2L), volume.stream().map(DailyVolume::getCheckouts).toList());
+        assertEquals(List.of(1L, 0L, 1L), volume.stream().map(DailyVolume::getReturns).toList());
+        assertThrows(BadRequestException.class, () -> stats.getDailyVolume(0, TODAY));
+        assertThrows(BadRequestException.class, () -> stats.top(CirculationStatsService.Dimension.BOOKS, 366, 10, TODAY));
+    }
+
+    private void checkout(Long bookId, Long patronId, LocalDate date, int times) {
+        for (int i = 0; i < times; i++) {
+            stats.recordCheckout(bookId, patronId, date);
+        }
+    }
+
+    private static List<String> ranked(List<RankedCount> counts) {
+        return counts.stream().map(count -> count.getId() + "=" + count.getCount()).toList();
+    }
+}
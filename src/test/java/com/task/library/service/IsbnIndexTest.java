@@ -0,0 +1,44 @@
+package com.task.library.service;
+
+import com.task.library.dto.BookDto;
+import com.task.library.entity.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the IsbnIndex bean the application uses, which lookups reach without going
+ * through the service timing aspect.
+ */
+@SpringBootTest
+public class IsbnIndexTest {
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private BookService bookService;
+
+    /** Test for a created book being found through the unproxied index bean */
+    @Test
+    public void testFindBookId_SpringBean() {
+        assertFalse(AopUtils.isAopProxy(isbnIndex));
+        assertTrue(AopUtils.isAopProxy(bookService));
+
+        Book book = new Book();
+        book.setTitle("Indexed");
+        book.setAuthor("Author");
+        book.setPublicationYear(2020);
+        book.setIsbn("9780000001153");
+        book.setCopiesTotal(1);
+        BookDto created = bookService.createBook(book);
+
+        assertEquals(created.getId(), isbnIndex.findBookId(Isbn.parse("978-0-000-00115-3")));
+        assertEquals(LongLongHashMap.NO_VALUE, isbnIndex.findBookId(Isbn.parse("9780306406157")));
+    }
+}
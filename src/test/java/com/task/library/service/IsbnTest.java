@@ -0,0 +1,36 @@
+package com.task.library.service;
+
+import com.task.library.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Isbn
+ */
+public class IsbnTest {
+
+    /**
+     * Test that ISBN-10 and hyphenated ISBN-13 normalize to the same ISBN-13
+     */
+    @Test
+    public void testNormalize() {
+        assertEquals("9780306406157", Isbn.normalize("0-306-40615-2"));
+        assertEquals("9780306406157", Isbn.normalize("978-0-306-40615-7"));
+        assertEquals("9780306406157", Isbn.normalize("978 0 306 40615 7"));
+        assertEquals("9780804429573", Isbn.normalize("080442957X"));
+        assertEquals(9791090636071L, Isbn.parse("979-10-90636-07-1"));
+    }
+
+    /**
+     * Test that bad checksums, lengths and prefixes are rejected
+     */
+    @Test
+    public void testParse_Invalid() {
+        assertThrows(BadRequestException.class, () -> Isbn.parse("0-306-40615-3"));
+        assertThrows(BadRequestException.class, () -> Isbn.parse("9780306406158"));
+        assertThrows(BadRequestException.class, () -> Isbn.parse("9770306406157"));
+        assertThrows(BadRequestException.class, () -> Isbn.parse("ISBN1"));
+        assertThrows(BadRequestException.class, () -> Isbn.parse(null));
+    }
+}
@@ -0,0 +1,210 @@
+package com.task.library.service;
+
+import com.task.library.dto.JobRequest;
+import com.task.library.dto.JobStatus;
+import com.task.library.exception.BadRequestException;
+import com.task.library.exception.ConflictException;
+import com.task.library.exception.ResourceNotFoundException;
+import com.task.library.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for JobService
+ */
+public class JobServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private final ReportService reportService = mock(ReportService.class);
+
+    private JobService jobService;
+
+    @AfterEach
+    public void tearDown() {
+        if (jobService != null) {
+            jobService.shutdown();
+        }
+    }
+
+    /**
+     * Test that a finished job reports its progress and serves the spooled file
+     */
+    @Test
+    public void testSubmit_SpoolsResult() throws Exception {
+        jobService = new JobService(reportService, directory, 2, 10, Duration.ofHours(1));
+        doAnswer(invocation -> {
+            JobProgress progress = invocation.getArgument(2);
+            progress.total(2);
+            write(invocation.getArgument(1), "{\"id\":1}\n{\"id\":2}\n");
+            progress.advance();
+            progress.advance();
+            return null;
+        }).when(reportService).writePatronStatement(eq(7L), any(), any());
+
+        JobStatus submitted = jobService.submit(new JobRequest(JobRequest.Type.PATRON_STATEMENT, null, 7L));
+        assertEquals(JobRequest.Priority.NORMAL, submitted.getPriority());
+        JobStatus finished = awaitFinished(submitted.getId());
+
+        assertEquals(JobStatus.State.SUCCEEDED, finished.getState());
+        assertEquals(2, finished.getProcessed());
+        assertEquals(2, finished.getTotal());
+        assertNotNull(finished.getStartedAt());
+        Path result = jobService.getResult(submitted.getId());
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", Files.readString(result));
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(result), files.toList());
+        }
+    }
+
+    /**
+     * Test that queued jobs run by priority, then in submission order, and cancelled ones never run
+     */
+    @Test
+    public void testQueue_PriorityOrderAndCancel() throws Exception {
+        jobService = new JobService(reportService, directory, 1, 10, Duration.ofHours(1));
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> started = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(reportService).writeLoanHistory(any(), any());
+        doAnswer(invocation -> {
+            started.add(invocation.getArgument(0));
+            return null;
+        }).when(reportService).writePatronStatement(any(), any(), any());
+
+        JobStatus blocker = jobService.submit(new JobRequest(JobRequest.Type.LOAN_HISTORY, JobRequest.Priority.LOW, null));
+        JobStatus low = jobService.submit(new JobRequest(JobRequest.Type.PATRON_STATEMENT, JobRequest.Priority.LOW, 1L));
+        JobStatus normal = jobService.submit(new JobRequest(JobRequest.Type.PATRON_STATEMENT, null, 2L));
+        JobStatus cancelled = jobService.submit(new JobRequest(JobRequest.Type.PATRON_STATEMENT, JobRequest.Priority.HIGH, 3L));
+        JobStatus high = jobService.submit(new JobRequest(JobRequest.Type.PATRON_STATEMENT, JobRequest.Priority.HIGH, 4L));
+
+        assertEquals(JobStatus.State.CANCELLED, jobService.cancel(cancelled.getId()).getState());
+        assertThrows(ConflictException.class, () -> jobService.getResult(high.getId()));
+        release.countDown();
+
+        for (JobStatus job : List.of(blocker, low, normal, high)) {
+            assertEquals(JobStatus.State.SUCCEEDED, awaitFinished(job.getId()).getState());
+        }
+        assertEquals(List.of(4L, 2L, 1L), started);
+    }
+
+    /**
+     * Test that cancelling a running job stops it at its next row and drops the partial file
+     */
+    @Test
+    public void testCancel_RunningJob() throws Exception {
+        jobService = new JobService(reportService, directory, 1, 10, Duration.ofHours(1));
+        CountDownLatch running = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            JobProgress progress = invocation.getArgument(1);
+            running.countDown();
+            while (true) {
+                write(invocation.getArgument(0), "{}\n");
+                progress.advance();
+                Thread.sleep(1);
+            }
+        }).when(reportService).writeCatalogAudit(any(), any());
+
+        JobStatus job = jobService.submit(new JobRequest(JobRequest.Type.CATALOG_AUDIT, null, null));
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        jobService.cancel(job.getId());
+
+        assertEquals(JobStatus.State.CANCELLED, awaitFinished(job.getId()).getState());
+        assertThrows(ConflictException.class, () -> jobService.getResult(job.getId()));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Test that a failing report marks its job failed with the error message
+     */
+    @Test
+    public void testSubmit_ReportFails() throws Exception {
+        jobService = new JobService(reportService, directory, 1, 10, Duration.ofHours(1));
+        doAnswer(invocation -> {
+            throw new IllegalStateException("disk on fire");
+        }).when(reportService).writeCatalogAudit(any(), any());
+
+        JobStatus job = jobService.submit(new JobRequest(JobRequest.Type.CATALOG_AUDIT, null, null));
+        JobStatus finished = awaitFinished(job.getId());
+
+        assertEquals(JobStatus.State.FAILED, finished.getState());
+        assertEquals("disk on fire", finished.getError());
+    }
+
+    /**
+     * Test that a full queue and a statement without a patron are rejected
+     */
+    @Test
+    public void testSubmit_Rejected() throws Exception {
+        jobService = new JobService(reportService, directory, 1, 1, Duration.ofHours(1));
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(reportService).writeLoanHistory(any(), any());
+
+        assertThrows(BadRequestException.class,
+                () -> jobService.submit(new JobRequest(JobRequest.Type.PATRON_STATEMENT, null, null)));
+        JobStatus running = jobService.submit(new JobRequest(JobRequest.Type.LOAN_HISTORY, null, null));
+        while (jobService.getStatus(running.getId()).getState() == JobStatus.State.QUEUED) {
+            Thread.sleep(1);
+        }
+        jobService.submit(new JobRequest(JobRequest.Type.LOAN_HISTORY, null, null));
+        assertThrows(ServiceUnavailableException.class,
+                () -> jobService.submit(new JobRequest(JobRequest.Type.LOAN_HISTORY, JobRequest.Priority.HIGH, null)));
+        release.countDown();
+    }
+
+    /**
+     * Test that finished jobs and their files are purged after the retention period
+     */
+    @Test
+    public void testPurgeExpired() throws Exception {
+        jobService = new JobService(reportService, directory, 1, 10, Duration.ZERO);
+        JobStatus job = jobService.submit(new JobRequest(JobRequest.Type.LOAN_HISTORY, null, null));
+        assertEquals(JobStatus.State.SUCCEEDED, awaitFinished(job.getId()).getState());
+        Path result = jobService.getResult(job.getId());
+
+        jobService.purgeExpired();
+
+        assertFalse(Files.exists(result));
+        assertThrows(ResourceNotFoundException.class, () -> jobService.getStatus(job.getId()));
+    }
+
+    private JobStatus awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        JobStatus status = jobService.getStatus(id);
+        while (!status.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = jobService.getStatus(id);
+        }
+        return status;
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
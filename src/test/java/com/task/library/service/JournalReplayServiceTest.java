@@ -0,0 +1,178 @@
+package com.task.library.service;
+
+import com.task.library.LibraryApplication;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.JournalReplayResult;
+import com.task.library.dto.PatronDto;
+import com.task.library.entity.Book;
+import com.task.library.entity.BorrowingRecord;
+import com.task.library.entity.Patron;
+import com.task.library.exception.ConflictException;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Makes a few changes and rebuilds them from the journal in a second application started on
+ * an empty database, or on one that already holds later changes, and checks that the
+ * application that made the changes refuses to replay.
+ */
+@SpringBootTest(properties = "library.journal.enabled=true")
+public class JournalReplayServiceTest {
+
+    private static final Path JOURNAL_DIR = Path.of("target/journal-test", UUID.randomUUID().toString());
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PatronService patronService;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private JournalReplayService journalReplayService;
+
+    @Autowired
+    private Journal journal;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("library.journal.dir", JOURNAL_DIR::toString);
+    }
+
+    /** Test for rebuilding books, patrons, loans and derived state from the journal in a freshly started application */
+    @Test
+    public void testRebuildDatabase() {
+        long journaledBefore = journal.lastSequence();
+        BookDto kept = bookService.createBook(book("Kept", "9780306406157", 2));
+        BookDto deleted = bookService.createBook(book("Deleted", "9780131103627", 1));
+        PatronDto patron = patronService.createPatron(patron("Reader"));
+        BorrowingRecord returned = borrowingService.borrowBook(kept.getId(), patron.getId());
+        borrowingService.returnBook(kept.getId(), patron.getId());
+        BorrowingRecord active = borrowingService.borrowBook(kept.getId(), patron.getId());
+        bookService.deleteBook(deleted.getId());
+        journal.flush();
+        assertEquals(journaledBefore + 7, journal.lastSequence());
+
+        List<Map<String, Object>> books = jdbcTemplate.queryForList("select * from book order by id");
+        List<Map<String, Object>> patrons = jdbcTemplate.queryForList("select * from patron order by id");
+        List<Map<String, Object>> loans = jdbcTemplate.queryForList("select * from borrowing_record order by id");
+
+        try (ConfigurableApplicationContext restored = freshApplication()) {
+            JdbcTemplate restoredJdbc = restored.getBean(JdbcTemplate.class);
+            JournalReplayResult result = restored.getBean(JournalReplayService.class).rebuildDatabase(1);
+
+            assertEquals(journal.lastSequence(), result.getLastSequence());
+            assertEquals(journal.lastSequence(), result.getRecords());
+            assertEquals(books, restoredJdbc.queryForList("select * from book order by id"));
+            assertEquals(patrons, restoredJdbc.queryForList("select * from patron order by id"));
+            assertEquals(loans, restoredJdbc.queryForList("select * from borrowing_record order by id"));
+            assertEquals(1, loans.stream().filter(loan -> loan.get("RETURN_DATE") == null).count());
+            assertTrue(returned.getId() < active.getId());
+
+            // Caches and indexes follow the rebuilt tables, and new rows get fresh ids
+            BookService restoredBooks = restored.getBean(BookService.class);
+            PatronService restoredPatrons = restored.getBean(PatronService.class);
+            assertEquals(1, restoredBooks.getBookById(kept.getId()).getCopiesAvailable());
+            assertEquals(kept.getId(), restoredBooks.findBookIdByIsbn("9780306406157"));
+            BookDto added = restoredBooks.createBook(book("Added", "9780262033848", 1));
+            PatronDto addedPatron = restoredPatrons.createPatron(patron("Second reader"));
+            assertTrue(added.getId() > deleted.getId());
+            assertTrue(addedPatron.getId() > patron.getId());
+            assertTrue(restored.getBean(BorrowingService.class).borrowBook(added.getId(), addedPatron.getId()).getId() > active.getId());
+        }
+    }
+
+    /** Test that appends reach the journal directly, without the service timing aspect */
+    @Test
+    public void testJournal_NotAdvised() {
+        assertFalse(AopUtils.isAopProxy(journal));
+    }
+
+    /** Test that replay is refused once the application has written */
+    @Test
+    public void testRebuildDatabase_AfterWrites() {
+        patronService.createPatron(patron("Early reader"));
+
+        assertThrows(ConflictException.class, () -> journalReplayService.rebuildDatabase(1));
+    }
+
+    /** Test that replay restores missing rows but keeps rows that are newer than the journaled records */
+    @Test
+    public void testRebuildDatabase_NewerRows() {
+        BookDto book = bookService.createBook(book("Journaled", "9780000001146", 2));
+        bookService.updateBook(book.getId(), book("Journaled again", "9780000001146", 2));
+        PatronDto patron = patronService.createPatron(patron("Journaled reader"));
+        patronService.updatePatron(patron.getId(), patron("Renamed journaled reader"));
+        journal.flush();
+
+        try (ConfigurableApplicationContext restored = freshApplication()) {
+            JdbcTemplate restoredJdbc = restored.getBean(JdbcTemplate.class);
+            JournalReplayService restoredReplay = restored.getBean(JournalReplayService.class);
+            restoredReplay.rebuildDatabase(1);
+            assertEquals(jdbcTemplate.queryForMap("select * from book where id = ?", book.getId()),
+                    restoredJdbc.queryForMap("select * from book where id = ?", book.getId()));
+            assertEquals(jdbcTemplate.queryForMap("select * from patron where id = ?", patron.getId()),
+                    restoredJdbc.queryForMap("select * from patron where id = ?", patron.getId()));
+
+            // Changes a restored backup may hold beyond what the journal has recorded
+            restoredJdbc.update("update book set title = 'Changed later', version = version + 5 where id = ?", book.getId());
+            restoredJdbc.update("update patron set name = 'Changed later', version = version + 5 where id = ?", patron.getId());
+            Map<String, Object> storedBook = restoredJdbc.queryForMap("select * from book where id = ?", book.getId());
+            Map<String, Object> storedPatron = restoredJdbc.queryForMap("select * from patron where id = ?", patron.getId());
+
+            restoredReplay.rebuildDatabase(1);
+
+            assertEquals(storedBook, restoredJdbc.queryForMap("select * from book where id = ?", book.getId()));
+            assertEquals(storedPatron, restoredJdbc.queryForMap("select * from patron where id = ?", patron.getId()));
+        }
+    }
+
+    /**
+     * Starts a second application on its own empty in-memory database that reads this
+     * test's journal without writing to it.
+     */
+    private static ConfigurableApplicationContext freshApplication() {
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .run("--server.port=0", "--library.journal.enabled=false", "--library.journal.dir=" + JOURNAL_DIR);
+    }
+
+    private static Book book(String title, String isbn, int copies) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setPublicationYear(2020);
+        book.setIsbn(isbn);
+        book.setCopiesTotal(copies);
+        book.setCopiesAvailable(copies);
+        return book;
+    }
+
+    private static Patron patron(String name) {
+        Patron patron = new Patron();
+        patron.setName(name);
+        patron.setContactInformation(name.toLowerCase().replace(' ', '.') + "@example.com");
+        return patron;
+    }
+}
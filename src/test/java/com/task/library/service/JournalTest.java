@@ -0,0 +1,150 @@
+package com.task.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    /** Test for concurrent appends being written once each, in sequence order, across segments */
+    @Test
+    public void testConcurrentAppendsAcrossSegments() throws Exception {
+        Journal journal = open(4);
+        int threads = 4;
+        int perThread = 2500;
+        List<Thread> appenders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long patronId = t;
+            Thread appender = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    long bookId = i;
+                    journal.append(JournalRecord.Type.LOAN_BORROWED, () -> Map.of("patronId", patronId, "bookId", bookId));
+                }
+            });
+            appenders.add(appender);
+            appender.start();
+        }
+        for (Thread appender : appenders) {
+            appender.join();
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        journal.replay(1, records::add);
+        journal.close();
+
+        assertEquals(threads * perThread, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i + 1, records.get(i).getSequence());
+        }
+        assertEquals(threads * perThread, journal.lastSequence());
+        assertTrue(segmentFiles().size() > 1);
+    }
+
+    /** Test for a reopened journal dropping a torn record and continuing after the last intact one */
+    @Test
+    public void testRecoveryAfterTornRecord() throws Exception {
+        Journal journal = open(64);
+        for (int i = 1; i <= 3; i++) {
+            long bookId = i;
+            journal.append(JournalRecord.Type.BOOK_DELETED, () -> bookId);
+        }
+        journal.close();
+
+        // Break the checksum of the third record
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            List<JournalRecord> records = new ArrayList<>();
+            JournalSegments.read(directory, records::add);
+            int thirdRecord = 2 * JournalSegments.HEADER_BYTES + records.get(0).getPayload().length + records.get(1).getPayload().length;
+            channel.write(ByteBuffer.wrap(new byte[]{'9'}), thirdRecord + JournalSegments.HEADER_BYTES);
+        }
+
+        Journal reopened = open(64);
+        assertEquals(2, reopened.lastSequence());
+        reopened.append(JournalRecord.Type.BOOK_DELETED, () -> 4L);
+        List<JournalRecord> records = new ArrayList<>();
+        reopened.replay(1, records::add);
+        reopened.close();
+
+        assertEquals(List.of(1L, 2L, 3L), records.stream().map(JournalRecord::getSequence).toList());
+        assertEquals("4", new String(records.get(2).getPayload()));
+    }
+
+    /** Test for replay starting at the requested sequence */
+    @Test
+    public void testReplayFromSequence() throws Exception {
+        Journal journal = open(64);
+        for (int i = 1; i <= 10; i++) {
+            long bookId = i;
+            journal.append(JournalRecord.Type.BOOK_DELETED, () -> bookId);
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        journal.replay(8, records::add);
+        journal.close();
+
+        assertEquals(List.of(8L, 9L, 10L), records.stream().map(JournalRecord::getSequence).toList());
+        assertEquals(JournalRecord.Type.BOOK_DELETED, records.get(0).getType());
+        assertEquals("8", new String(records.get(0).getPayload()));
+    }
+
+    /** Test for a record that cannot be serialized keeping its sequence, before and after a restart */
+    @Test
+    public void testUnserializablePayloadKeepsSequence() throws Exception {
+        Journal journal = open(64);
+        journal.append(JournalRecord.Type.BOOK_DELETED, () -> 1L);
+        journal.append(JournalRecord.Type.BOOK_DELETED, Object::new);
+        journal.append(JournalRecord.Type.BOOK_DELETED, () -> 3L);
+        List<JournalRecord> records = new ArrayList<>();
+        journal.replay(1, records::add);
+        journal.close();
+
+        assertEquals(List.of(1L, 2L, 3L), records.stream().map(JournalRecord::getSequence).toList());
+        assertEquals(JournalRecord.Type.SKIPPED, records.get(1).getType());
+        assertEquals("3", new String(records.get(2).getPayload()));
+        assertEquals(3, journal.lastSequence());
+
+        Journal reopened = open(64);
+        assertEquals(3, reopened.lastSequence());
+        reopened.close();
+    }
+
+    /** Test for a second journal on the same directory being refused */
+    @Test
+    public void testDirectoryInUse() throws Exception {
+        Journal journal = open(64);
+        assertThrows(IllegalStateException.class, () -> open(64));
+        journal.close();
+    }
+
+    private Journal open(int segmentKilobytes) throws IOException {
+        return new Journal(objectMapper, true, directory, DataSize.ofKilobytes(segmentKilobytes), 1024, Duration.ofMillis(10));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+}
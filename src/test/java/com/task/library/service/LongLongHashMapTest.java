@@ -0,0 +1,58 @@
+package com.task.library.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for LongLongHashMap
+ */
+public class LongLongHashMapTest {
+
+    /**
+     * Test put, get and remove
+     */
+    @Test
+    public void testPutGetRemove() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        assertEquals(LongLongHashMap.NO_VALUE, map.put(9780306406157L, 1L));
+        assertEquals(1L, map.put(9780306406157L, 2L));
+        assertEquals(2L, map.get(9780306406157L));
+        assertEquals(LongLongHashMap.NO_VALUE, map.get(9780080524740L));
+
+        assertEquals(2L, map.remove(9780306406157L));
+        assertEquals(LongLongHashMap.NO_VALUE, map.get(9780306406157L));
+        assertEquals(0, map.size());
+    }
+
+    /**
+     * Test random operations, including removals inside probe runs and resizes, against HashMap
+     */
+    @Test
+    public void testRandomOperations() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, LongLongHashMap.NO_VALUE), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, LongLongHashMap.NO_VALUE), map.put(key, i));
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongLongHashMap.NO_VALUE), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.task.library.service;
+
+import com.task.library.dto.DueLoan;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for OverdueTracker
+ */
+public class OverdueTrackerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    /**
+     * Test that a loan becomes overdue on the day after its due date, once
+     */
+    @Test
+    public void testTick_EmitsLoanOnceAfterDueDate() {
+        OverdueTracker tracker = new OverdueTracker(TODAY);
+        tracker.track(loan(1L, TODAY.plusDays(14)));
+        tracker.track(loan(2L, TODAY.plusDays(20)));
+
+        assertTrue(tracker.tick(TODAY.plusDays(14)).isEmpty());
+        assertEquals(List.of(1L), ids(tracker.tick(TODAY.plusDays(15))));
+        assertTrue(tracker.tick(TODAY.plusDays(15)).isEmpty());
+        assertEquals(List.of(1L), ids(tracker.getOverdueLoans()));
+        assertEquals(2, tracker.size());
+    }
+
+    /**
+     * Test that loans due beyond the wheel move into it and become overdue on time
+     */
+    @Test
+    public void testTick_LoanDueBeyondWheel() {
+        OverdueTracker tracker = new OverdueTracker(TODAY);
+        LocalDate farDueDate = TODAY.plusDays(OverdueTracker.WHEEL_DAYS * 3L + 5);
+        tracker.track(loan(1L, farDueDate));
+        tracker.track(loan(2L, TODAY.plusDays(OverdueTracker.WHEEL_DAYS)));
+
+        assertEquals(List.of(2L), ids(tracker.tick(TODAY.plusDays(OverdueTracker.WHEEL_DAYS + 1))));
+        assertTrue(tracker.tick(farDueDate).isEmpty());
+        assertEquals(List.of(1L), ids(tracker.tick(farDueDate.plusDays(1))));
+    }
+
+    /**
+     * Test that returned loans are dropped, whether pending, beyond the wheel or overdue
+     */
+    @Test
+    public void testUntrack() {
+        OverdueTracker tracker = new OverdueTracker(TODAY);
+        tracker.track(loan(1L, TODAY.plusDays(3)));
+        tracker.track(loan(2L, TODAY.plusDays(OverdueTracker.WHEEL_DAYS + 10)));
+        tracker.track(loan(3L, TODAY.minusDays(1)));
+
+        assertEquals(List.of(3L), ids(tracker.getOverdueLoans()));
+        tracker.untrack(1L);
+        tracker.untrack(2L);
+        tracker.untrack(3L);
+        tracker.untrack(4L);
+
+        assertTrue(tracker.getOverdueLoans().isEmpty());
+        assertTrue(tracker.tick(TODAY.plusYears(1)).isEmpty());
+        assertEquals(0, tracker.size());
+    }
+
+    private static DueLoan loan(Long id, LocalDate dueDate) {
+        return new DueLoan(id, 10L + id, 20L, dueDate.minusDays(14), dueDate);
+    }
+
+    private static List<Long> ids(List<DueLoan> loans) {
+        return loans.stream().map(DueLoan::getId).toList();
+    }
+}
@@ -0,0 +1,185 @@
+package com.task.library.service;
+
+import com.task.library.dto.CursorPage;
+import com.task.library.dto.PatronDto;
+import com.task.library.entity.Book;
+import com.task.library.entity.BorrowingRecord;
+import com.task.library.entity.Patron;
+import com.task.library.repository.BookRepository;
+import com.task.library.repository.BorrowingRecordRepository;
+import com.task.library.repository.PatronRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements behind the book and patron read endpoints, so a list
+ * costs the same number of queries whatever its length, apart from one loan query
+ * per page of ids.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser(username = "admin", roles = "ADMIN")
+public class ReadQueryCountTest {
+
+    private static final int BOOKS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private PatronService patronService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (bookRepository.count() == 0) {
+            seed();
+        }
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics.clear();
+    }
+
+    private void seed() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("Title " + i);
+            book.setAuthor("Author " + i);
+            book.setPublicationYear(2000);
+            book.setIsbn(String.format("978%010d", i));
+            books.add(book);
+        }
+        books = bookRepository.saveAll(books);
+
+        List<Patron> patrons = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Patron patron = new Patron();
+            patron.setName("Patron " + i);
+            patron.setContactInformation("patron" + i + "@example.com");
+            patrons.add(patron);
+        }
+        patrons = patronRepository.saveAll(patrons);
+
+        List<BorrowingRecord> records = new ArrayList<>();
+        for (int i = 0; i < BOOKS * 2; i++) {
+            BorrowingRecord record = new BorrowingRecord();
+            record.setBook(books.get(i % BOOKS));
+            record.setPatron(patrons.get(i % patrons.size()));
+            record.setBorrowDate(LocalDate.of(2024, 1, 1));
+            record.setReturnDate(LocalDate.of(2024, 1, 15));
+            records.add(record);
+        }
+        borrowingRecordRepository.saveAll(records);
+    }
+
+    /**
+     * Test that GET /api/books runs a single query
+     */
+    @Test
+    public void testGetAllBooks() throws Exception {
+        mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(BOOKS))
+                .andExpect(jsonPath("$[0].loans").doesNotExist());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Test that GET /api/books?include=loans adds one query for all loans
+     */
+    @Test
+    public void testGetAllBooks_IncludeLoans() throws Exception {
+        mockMvc.perform(get("/api/books").param("include", "loans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(BOOKS))
+                .andExpect(jsonPath("$[0].loans.length()").value(2));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Test that a page of books with loans takes two queries
+     */
+    @Test
+    public void testGetBooksPage_IncludeLoans() throws Exception {
+        mockMvc.perform(get("/api/books").param("limit", "10").param("include", "loans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(10))
+                .andExpect(jsonPath("$.items[9].loans.length()").value(2));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Test that patrons with loans take two queries
+     */
+    @Test
+    public void testGetAllPatrons_IncludeLoans() throws Exception {
+        mockMvc.perform(get("/api/patrons").param("include", "loans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].loans.length()").value(BOOKS * 2 / 3));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Test that more than a page of patrons with loans reads only their loans, a page of ids per query
+     */
+    @Test
+    public void testPatronsWithLoans_LongList() {
+        List<PatronDto> listed = new ArrayList<>();
+        listed.add(patronRepository.findAllDtos().get(0));
+        for (long id = -1; listed.size() <= CursorPage.MAX_LIMIT; id--) {
+            listed.add(new PatronDto(id, "Unknown", "unknown@example.com", 0L));
+        }
+        statistics.clear();
+
+        List<PatronDto> withLoans = patronService.withLoans(listed);
+
+        assertEquals(BOOKS * 2 / 3, withLoans.get(0).getLoans().size());
+        assertTrue(withLoans.stream().skip(1).allMatch(patron -> patron.getLoans().isEmpty()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        long loanRows = Arrays.stream(statistics.getQueries())
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionRowCount())
+                .sum();
+        assertEquals(BOOKS * 2 / 3, loanRows);
+    }
+}
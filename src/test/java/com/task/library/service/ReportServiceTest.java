@@ -0,0 +1,142 @@
+package com.task.library.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.library.dto.BookDto;
+import com.task.library.dto.PatronDto;
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import com.task.library.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the job reports against the database.
+ */
+@SpringBootTest
+public class ReportServiceTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PatronService patronService;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Test for a patron statement: the patron, then every loan newest first */
+    @Test
+    public void testWritePatronStatement() throws Exception {
+        BookDto first = bookService.createBook(book("Statement first", "9780000001016"));
+        BookDto second = bookService.createBook(book("Statement second", "9780000001023"));
+        PatronDto patron = patronService.createPatron(patron("Statement reader"));
+        borrowingService.borrowBook(first.getId(), patron.getId());
+        borrowingService.returnBook(first.getId(), patron.getId());
+        borrowingService.borrowBook(second.getId(), patron.getId());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Progress progress = new Progress();
+        reportService.writePatronStatement(patron.getId(), out, progress);
+
+        List<JsonNode> rows = rows(out);
+        assertEquals(3, rows.size());
+        assertEquals(patron.getId(), rows.get(0).get("id").asLong());
+        assertEquals(second.getId(), rows.get(1).get("book").get("id").asLong());
+        assertTrue(rows.get(1).get("returnDate").isNull());
+        assertEquals(first.getId(), rows.get(2).get("book").get("id").asLong());
+        assertEquals(3, progress.total);
+        assertEquals(3, progress.processed);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> reportService.writePatronStatement(Long.MAX_VALUE, new ByteArrayOutputStream(), new Progress()));
+    }
+
+    /** Test for the catalog audit reporting a book whose available copies drifted from its loans */
+    @Test
+    public void testWriteCatalogAudit() throws Exception {
+        BookDto consistent = bookService.createBook(book("Audit consistent", "9780000001030"));
+        BookDto drifted = bookService.createBook(book("Audit drifted", "9780000001047"));
+        PatronDto patron = patronService.createPatron(patron("Audit reader"));
+        borrowingService.borrowBook(consistent.getId(), patron.getId());
+        borrowingService.borrowBook(drifted.getId(), patron.getId());
+        jdbcTemplate.update("update book set copies_available = copies_total where id = ?", drifted.getId());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Progress progress = new Progress();
+        reportService.writeCatalogAudit(out, progress);
+
+        List<JsonNode> findings = rows(out).stream()
+                .filter(row -> row.get("bookId").asLong() == consistent.getId() || row.get("bookId").asLong() == drifted.getId())
+                .toList();
+        assertEquals(1, findings.size());
+        assertEquals(drifted.getId(), findings.get(0).get("bookId").asLong());
+        assertEquals(2, findings.get(0).get("copiesAvailable").asInt());
+        assertEquals(1, findings.get(0).get("activeLoans").asLong());
+        assertEquals(1, findings.get(0).get("expectedAvailable").asInt());
+        assertEquals(progress.total, progress.processed);
+    }
+
+    private List<JsonNode> rows(ByteArrayOutputStream out) throws Exception {
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        return rows;
+    }
+
+    private static Book book(String title, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setPublicationYear(2020);
+        book.setIsbn(isbn);
+        book.setCopiesTotal(2);
+        book.setCopiesAvailable(2);
+        return book;
+    }
+
+    private static Patron patron(String name) {
+        Patron patron = new Patron();
+        patron.setName(name);
+        patron.setContactInformation(name.toLowerCase().replace(' ', '.') + "@example.com");
+        return patron;
+    }
+
+    private static class Progress implements JobProgress {
+
+        long total = -1;
+
+        long processed;
+
+        @Override
+        public void total(long rows) {
+            total = rows;
+        }
+
+        @Override
+        public void advance() {
+            processed++;
+        }
+    }
+}
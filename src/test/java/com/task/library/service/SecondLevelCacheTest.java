@@ -0,0 +1,135 @@
+package com.task.library.service;
+
+import com.task.library.dto.BookDto;
+import com.task.library.dto.PatronDto;
+import com.task.library.dto.RegionStatistics;
+import com.task.library.entity.Book;
+import com.task.library.entity.Patron;
+import com.task.library.repository.BookRepository;
+import com.task.library.repository.PatronRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that checkouts find books and patrons in the Hibernate second-level cache, that a
+ * loan evicts the cached loan collection of its book, and that patron lookups are answered
+ * from the query cache until the patron changes.
+ */
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PatronService patronService;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /** Test that a checkout takes the book and the patron from the second-level cache rather than the database */
+    @Test
+    public void testBorrowBook_CachedBookAndPatron() {
+        BookDto book = bookService.createBook(book("Cached copies", "9780000001085"));
+        PatronDto first = patronService.createPatron(patron("First cached reader"));
+        PatronDto second = patronService.createPatron(patron("Second cached reader"));
+        borrowingService.borrowBook(book.getId(), first.getId());
+        patronRepository.findById(second.getId());
+
+        statistics.clear();
+        borrowingService.borrowBook(book.getId(), second.getId());
+
+        assertEquals(0, statistics.getEntityStatistics(Book.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(Patron.class.getName()).getLoadCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("book").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("patron").getHitCount());
+
+        RegionStatistics bookRegion = cacheStatsService.getRegionStatistics().get("book");
+        assertEquals(1, bookRegion.getHitCount());
+        assertEquals(1.0, bookRegion.getHitRate());
+    }
+
+    /** Test that a new loan evicts the cached loan collection of its book */
+    @Test
+    public void testBorrowBook_EvictsLoanCollection() {
+        BookDto book = bookService.createBook(book("Cached loans", "9780000001092"));
+        PatronDto patron = patronService.createPatron(patron("Collection reader"));
+        assertEquals(0, loanCount(book.getId()));
+
+        statistics.clear();
+        assertEquals(0, loanCount(book.getId()));
+        assertEquals(1, statistics.getDomainDataRegionStatistics("bookBorrowingRecords").getHitCount());
+
+        borrowingService.borrowBook(book.getId(), patron.getId());
+        assertEquals(1, loanCount(book.getId()));
+    }
+
+    /** Test that patron lookups come from the query cache and see a renamed patron once it is saved */
+    @Test
+    public void testFindPatronDto_QueryCache() {
+        PatronDto patron = patronService.createPatron(patron("Query cached reader"));
+        patronRepository.findDtoById(patron.getId());
+
+        statistics.clear();
+        assertEquals("Query cached reader", patronRepository.findDtoById(patron.getId()).orElseThrow().getName());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getQueryExecutionCount());
+
+        patronService.updatePatron(patron.getId(), patron("Renamed query reader"));
+        assertEquals("Renamed query reader", patronRepository.findDtoById(patron.getId()).orElseThrow().getName());
+    }
+
+    private int loanCount(Long bookId) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                bookRepository.findById(bookId).orElseThrow().getBorrowingRecords().size());
+    }
+
+    private static Book book(String title, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setPublicationYear(2020);
+        book.setIsbn(isbn);
+        book.setCopiesTotal(3);
+        book.setCopiesAvailable(3);
+        return book;
+    }
+
+    private static Patron patron(String name) {
+        Patron patron = new Patron();
+        patron.setName(name);
+        patron.setContactInformation(name.toLowerCase().replace(' ', '.') + "@example.com");
+        return patron;
+    }
+}